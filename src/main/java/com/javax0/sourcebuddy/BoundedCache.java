@@ -0,0 +1,169 @@
+package com.javax0.sourcebuddy;
+
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A size bounded, least recently used, in memory cache.
+ * <p>
+ * The keys of the cache are compilation fingerprints. The values are kept in the cache until the number of the
+ * entries exceeds the maximum size, in which case the least recently used entries are evicted. Optionally the values
+ * are referenced softly, and the garbage collector can reclaim them when the memory is low. A value reclaimed by
+ * the garbage collector counts as an eviction.
+ * <p>
+ * The cache counts the hits, misses, and evictions, so that the size of the cache can be tuned.
+ * <p>
+ * A maximum size of zero switches off the cache. In that case nothing is stored, and the counters are not updated.
+ *
+ * @param <V> the type of the cached values
+ */
+public class BoundedCache<V> {
+
+    private final Map<String, Supplier<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int maxSize;
+    private boolean softValues;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Create a new cache.
+     *
+     * @param maxSize    the maximum number of the entries, zero switches off the cache
+     * @param softValues {@code true} if the values are to be referenced softly
+     */
+    public BoundedCache(final int maxSize, final boolean softValues) {
+        maxSize(maxSize);
+        this.softValues = softValues;
+    }
+
+    /**
+     * Get the value from the cache.
+     *
+     * @param key the key of the value
+     * @return the value or {@code null} if there is no value in the cache for the key
+     */
+    synchronized V get(final String key) {
+        if (maxSize == 0) {
+            return null;
+        }
+        final var supplier = entries.get(key);
+        final var value = supplier == null ? null : supplier.get();
+        if (value == null) {
+            if (supplier != null) {
+                entries.remove(key);
+                evictions++;
+            }
+            misses++;
+            return null;
+        }
+        hits++;
+        return value;
+    }
+
+    /**
+     * Put a value into the cache. If the cache becomes larger than the maximum size, then the least recently used
+     * elements are evicted.
+     *
+     * @param key   the key of the value
+     * @param value the value, must not be {@code null}
+     */
+    synchronized void put(final String key, final V value) {
+        if (maxSize == 0) {
+            return;
+        }
+        if (softValues) {
+            final var reference = new SoftReference<>(value);
+            entries.put(key, reference::get);
+        } else {
+            entries.put(key, () -> value);
+        }
+        shrink();
+    }
+
+    private void shrink() {
+        final Iterator<Supplier<V>> it = entries.values().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Set the maximum size of the cache. If the cache is larger than the new size then the least recently used
+     * entries are evicted.
+     *
+     * @param maxSize the maximum number of the entries, zero switches off the cache
+     * @return this
+     */
+    public synchronized BoundedCache<V> maxSize(final int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("The maximum size of the cache cannot be negative.");
+        }
+        this.maxSize = maxSize;
+        shrink();
+        return this;
+    }
+
+    /**
+     * Set whether the values put into the cache afterwards are referenced softly.
+     *
+     * @param softValues {@code true} if the values are to be referenced softly
+     * @return this
+     */
+    public synchronized BoundedCache<V> softValues(final boolean softValues) {
+        this.softValues = softValues;
+        return this;
+    }
+
+    /**
+     * @return the maximum number of the entries
+     */
+    public synchronized int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the current number of the entries, including the softly referenced values already reclaimed by the
+     * garbage collector, but not yet discovered
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of the lookups that found the value in the cache
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of the lookups that did not find the value in the cache
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of the values removed from the cache because of the size limit or because the garbage
+     * collector reclaimed them
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    /**
+     * Remove all entries from the cache and reset the counters.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+}
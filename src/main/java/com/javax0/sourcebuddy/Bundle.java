@@ -0,0 +1,146 @@
+package com.javax0.sourcebuddy;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read and write the single file snapshot of a compiled session.
+ * <p>
+ * The bundle file contains the byte codes of all the compiled classes, the binary names of the sources and the
+ * hidden/nest loading flags of the sources. The structure of the file is
+ *
+ * <pre>
+ *     int    magic number
+ *     int    version
+ *     int    length of the index in bytes
+ *     index  written using {@link DataOutputStream}
+ *            int number of classes, and for each class
+ *                UTF binary name, int offset of the byte code after the index, int length of the byte code
+ *            int number of sources, and for each source
+ *                UTF binary name, boolean hidden, boolean nest, int number of class options, UTF option names
+ *     bytes  the byte codes one after the other
+ * </pre>
+ * <p>
+ * When reading, the file is mapped into the memory and only the index is read. The class file objects reference
+ * slices of the mapped buffer, therefore the byte code of a class is read from the file only when the class is
+ * loaded.
+ */
+final class Bundle {
+    private static final int MAGIC = 0x5342424e; // "SBBN"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+
+    /**
+     * The content of a bundle.
+     *
+     * @param classes the class file objects keyed by the binary names
+     * @param sources the sources with the loading flags, but without source code
+     */
+    record Content(Map<String, MemoryFileObject> classes, List<StringJavaSource> sources) {
+    }
+
+    private Bundle() {
+    }
+
+    static void write(final Path file, final Map<String, MemoryFileObject> classes, final List<StringJavaSource> sources) throws IOException {
+        final var codes = new ArrayList<byte[]>(classes.size());
+        final var indexBytes = new ByteArrayOutputStream();
+        try (final var index = new DataOutputStream(indexBytes)) {
+            index.writeInt(classes.size());
+            int offset = 0;
+            for (final var e : classes.entrySet()) {
+                final var code = e.getValue().getByteArray();
+                codes.add(code);
+                index.writeUTF(e.getKey());
+                index.writeInt(offset);
+                index.writeInt(code.length);
+                offset += code.length;
+            }
+            index.writeInt(sources.size());
+            for (final var source : sources) {
+                index.writeUTF(source.binaryName);
+                index.writeBoolean(source.isHidden);
+                index.writeBoolean(source.isNest);
+                index.writeInt(source.classOptions.length);
+                for (final var option : source.classOptions) {
+                    index.writeUTF(option.name());
+                }
+            }
+        }
+        try (final var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.CREATE)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(indexBytes.size());
+            indexBytes.writeTo(out);
+            for (final var code : codes) {
+                out.write(code);
+            }
+        }
+    }
+
+    static Content read(final Path file) throws IOException {
+        final ByteBuffer mapped;
+        try (final var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The bundle file '%s' is too large".formatted(file));
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (mapped.limit() < HEADER_SIZE || mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+            throw new IOException("The file '%s' is not a bundle file".formatted(file));
+        }
+        final var indexLength = mapped.getInt();
+        final var dataStart = HEADER_SIZE + indexLength;
+        if (indexLength < 0 || dataStart > mapped.limit()) {
+            throw new IOException("The bundle file '%s' is corrupt".formatted(file));
+        }
+        final var indexBytes = new byte[indexLength];
+        mapped.get(indexBytes);
+        final var index = new DataInputStream(new ByteArrayInputStream(indexBytes));
+        final var classes = new LinkedHashMap<String, MemoryFileObject>();
+        final var classCount = index.readInt();
+        for (int i = 0; i < classCount; i++) {
+            final var name = index.readUTF();
+            final var offset = index.readInt();
+            final var length = index.readInt();
+            if (offset < 0 || length < 0 || (long) dataStart + offset + length > mapped.limit()) {
+                throw new IOException("The bundle file '%s' is corrupt".formatted(file));
+            }
+            final var code = mapped.duplicate();
+            code.limit(dataStart + offset + length).position(dataStart + offset);
+            classes.put(name, new MemoryFileObject(name, code.slice()));
+        }
+        final var sources = new ArrayList<StringJavaSource>();
+        final var sourceCount = index.readInt();
+        for (int i = 0; i < sourceCount; i++) {
+            final var source = new StringJavaSource(index.readUTF(), "");
+            source.isHidden = index.readBoolean();
+            source.isNest = index.readBoolean();
+            source.classOptions = new MethodHandles.Lookup.ClassOption[index.readInt()];
+            for (int j = 0; j < source.classOptions.length; j++) {
+                try {
+                    source.classOptions[j] = MethodHandles.Lookup.ClassOption.valueOf(index.readUTF());
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("The bundle file '%s' is corrupt".formatted(file), e);
+                }
+            }
+            sources.add(source);
+        }
+        return new Content(classes, sources);
+    }
+}
@@ -1,9 +1,17 @@
 //snipline clPackage filter=package\s(.+);
 package com.javax0.sourcebuddy;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.invoke.MethodHandles;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
 import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.security.ProtectionDomain;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
@@ -23,9 +31,14 @@ public class ByteClassLoader extends URLClassLoader {
      */
     private static class ClassRecord {
         /**
-         * The compiled byte code of the class
+         * The compiled byte code of the class, or {@code null} if the byte code is stored outside the heap.
          */
         final byte[] code;
+        /**
+         * The byte code of the class stored outside the heap, in the arena or in a memory mapped file, or
+         * {@code null} if the byte code is on the heap.
+         */
+        final ByteBuffer buffer;
         /**
          * The class when the class was already loaded into the JVM.
          */
@@ -52,6 +65,17 @@ public class ByteClassLoader extends URLClassLoader {
          */
         ClassRecord(final byte[] code) {
             this.code = Objects.requireNonNull(code);
+            this.buffer = null;
+        }
+
+        /**
+         * Create a new record for a byte code stored outside the heap.
+         *
+         * @param buffer the buffer containing the byte code between its position and limit, must not be {@code null}
+         */
+        ClassRecord(final ByteBuffer buffer) {
+            this.code = null;
+            this.buffer = Objects.requireNonNull(buffer);
         }
     }
 
@@ -65,6 +89,17 @@ public class ByteClassLoader extends URLClassLoader {
      */
     private final Set<Compiler.LoaderOption> options;
 
+    /**
+     * The off-heap storage of the byte codes, or {@code null} if the byte codes are stored in the records.
+     * See {@link com.javax0.sourcebuddy.Compiler.LoaderOption#OFF_HEAP}
+     */
+    private final ByteCodeArena arena;
+
+    /**
+     * The resources created by the annotation processors during the compilation. The key is the name of the resource.
+     */
+    private final Map<String, byte[]> resources = new ConcurrentHashMap<>();
+
     /**
      * @param parent     passed to the super constructor. For more information see
      *                   {@link URLClassLoader#URLClassLoader(URL[], ClassLoader)}.
@@ -80,17 +115,77 @@ public class ByteClassLoader extends URLClassLoader {
      * @param options    contain the loading options, see {@link com.javax0.sourcebuddy.Compiler.LoaderOption}
      */
     ByteClassLoader(ClassLoader parent, final Map<String, byte[]> classesMap, List<StringJavaSource> sources, Compiler.LoaderOption[] options) {
+        this(parent, options);
+        addByteCodes(classesMap, sources);
+    }
+
+    /**
+     * Create a new class loader without any class in it. The classes are added calling {@link
+     * #addClassFiles(Map, List)}.
+     *
+     * @param parent  passed to the super constructor
+     * @param options contain the loading options, see {@link com.javax0.sourcebuddy.Compiler.LoaderOption}
+     */
+    ByteClassLoader(ClassLoader parent, Compiler.LoaderOption[] options) {
         super(new URL[0], parent);
         this.options = Set.of(options);
+        this.arena = this.options.contains(Compiler.LoaderOption.OFF_HEAP) ? new ByteCodeArena() : null;
         this.classRecords = new HashMap<>();
-        addByteCodes(classesMap, sources);
     }
 
     public void addByteCodes(final Map<String, byte[]> classesMap, List<StringJavaSource> sources) {
         final var map = new HashMap<String, ClassRecord>();
         for (final var e : classesMap.entrySet()) {
-            map.put(e.getKey(), new ClassRecord(e.getValue()));
+            map.put(e.getKey(), newRecord(e.getValue()));
+        }
+        addRecords(map, sources);
+    }
+
+    /**
+     * Add the class files to the loader. The class files backed by a memory mapped file are not copied to the heap.
+     * When the byte codes are stored outside the heap, the class file objects are switched to the copy in the arena,
+     * so that the compiler does not keep the byte codes on the heap either.
+     *
+     * @param classFiles the class file objects, the keys are the binary names
+     * @param sources    the list of the source objects, see {@link #addByteCodes(Map, List)}
+     */
+    void addClassFiles(final Map<String, MemoryFileObject> classFiles, List<StringJavaSource> sources) {
+        final var map = new HashMap<String, ClassRecord>();
+        for (final var e : classFiles.entrySet()) {
+            final var file = e.getValue();
+            final var buffer = file.getByteBuffer();
+            if (buffer != null) {
+                map.put(e.getKey(), new ClassRecord(buffer));
+            } else if (arena != null) {
+                final var code = arena.put(file.getByteArray());
+                file.moveTo(code.duplicate());
+                map.put(e.getKey(), new ClassRecord(code));
+            } else {
+                map.put(e.getKey(), new ClassRecord(file.getByteArray()));
+            }
+        }
+        addRecords(map, sources);
+    }
+
+    /**
+     * Add the resources created by the annotation processors to the loader. The files, which were not written, are
+     * ignored.
+     *
+     * @param files the generated files, the keys are the resource names
+     */
+    void addResources(final Map<String, GeneratedFile> files) {
+        for (final var e : files.entrySet()) {
+            if (e.getValue().isWritten()) {
+                resources.put(e.getKey(), e.getValue().getByteArray());
+            }
         }
+    }
+
+    private ClassRecord newRecord(final byte[] code) {
+        return arena == null ? new ClassRecord(code) : new ClassRecord(arena.put(code));
+    }
+
+    private void addRecords(final Map<String, ClassRecord> map, List<StringJavaSource> sources) {
 
         for (final var source : sources) {
             final var record = map.get(source.binaryName);
@@ -137,6 +232,58 @@ public class ByteClassLoader extends URLClassLoader {
         return super.findClass(name);
     }
 
+    @Override
+    public URL findResource(final String name) {
+        final var content = resources.get(name);
+        return content == null ? super.findResource(name) : resourceUrl(name, content);
+    }
+
+    @Override
+    public Enumeration<URL> findResources(final String name) throws IOException {
+        final var content = resources.get(name);
+        if (content == null) {
+            return super.findResources(name);
+        }
+        final var urls = new ArrayList<URL>();
+        urls.add(resourceUrl(name, content));
+        urls.addAll(Collections.list(super.findResources(name)));
+        return Collections.enumeration(urls);
+    }
+
+    /**
+     * Create a URL reading the content of a resource from the memory.
+     *
+     * @param name    the name of the resource
+     * @param content the content of the resource
+     * @return the URL
+     */
+    private static URL resourceUrl(final String name, final byte[] content) {
+        try {
+            return new URL("sourcebuddy", null, -1, "/" + name, new URLStreamHandler() {
+                @Override
+                protected URLConnection openConnection(final URL url) {
+                    return new URLConnection(url) {
+                        @Override
+                        public void connect() {
+                        }
+
+                        @Override
+                        public InputStream getInputStream() {
+                            return new ByteArrayInputStream(content);
+                        }
+
+                        @Override
+                        public long getContentLengthLong() {
+                            return content.length;
+                        }
+                    };
+                }
+            });
+        } catch (MalformedURLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private Class<?> loadClassFromThisClassLoader(final String name) throws ClassNotFoundException {
         final var record = classRecords.get(name);
         if (record.loadedClass != null) {
@@ -147,7 +294,7 @@ public class ByteClassLoader extends URLClassLoader {
             if (record.isHidden) {
                 loadClassHidden(record);
             } else {
-                loadClassNamed(record);
+                loadClassNamed(name, record);
             }
             return record.loadedClass;
         } catch (IllegalAccessException e) {
@@ -159,22 +306,42 @@ public class ByteClassLoader extends URLClassLoader {
      * Load a named class. If there is a lookup object to load the class then it will be loaded using the lookup,
      * otherwise it will be loaded as a normal class by this classloader.
      *
+     * @param name   the binary name of the class
      * @param record the class record
      * @throws IllegalAccessException if the class cannot be loaded
      */
-    private void loadClassNamed(final ClassRecord record) throws IllegalAccessException {
+    private void loadClassNamed(final String name, final ClassRecord record) throws IllegalAccessException {
         if (record.lookup != null) {
-            record.loadedClass = record.lookup.defineClass(record.code);
+            record.loadedClass = record.lookup.defineClass(code(record));
+        } else if (record.code == null) {
+            record.loadedClass = defineClass(name, record.buffer.duplicate(), (ProtectionDomain) null);
         } else {
             record.loadedClass = defineClass(Compiler.getBinaryName(record.code), record.code, 0, record.code.length);
         }
     }
 
-    private static void loadClassHidden(final ClassRecord record) throws IllegalAccessException {
-        record.loadedClass = record.lookup.defineHiddenClass(record.code, true, record.classOptions)
+    private void loadClassHidden(final ClassRecord record) throws IllegalAccessException {
+        record.loadedClass = record.lookup.defineHiddenClass(code(record), true, record.classOptions)
                 .lookupClass();
     }
 
+    /**
+     * Get the byte code of the record as a byte array. When the byte code is stored outside the heap, then this
+     * method creates a temporary copy on the heap. It is needed by the methods, which do not accept byte buffers.
+     *
+     * @param record the class record
+     * @return the byte code
+     */
+    private static byte[] code(final ClassRecord record) {
+        if (record.code != null) {
+            return record.code;
+        }
+        final var buffer = record.buffer.duplicate();
+        final var code = new byte[buffer.remaining()];
+        buffer.get(code);
+        return code;
+    }
+
     /**
      * If there is no lookup object and the class is to be loaded hidden then create a lookup object
      *
@@ -183,7 +350,7 @@ public class ByteClassLoader extends URLClassLoader {
      */
     private void adjustLookupObject(final ClassRecord record) throws ClassNotFoundException {
         if (record.lookup == null && record.isHidden) {
-            record.lookup = getLookup(Compiler.getBinaryName(record.code));
+            record.lookup = getLookup(Compiler.getBinaryName(code(record)));
         }
     }
 
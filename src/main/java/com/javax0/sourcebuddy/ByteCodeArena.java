@@ -0,0 +1,42 @@
+package com.javax0.sourcebuddy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An append only storage of byte codes outside the Java heap.
+ * <p>
+ * The byte codes are copied into direct byte buffers, allocated in chunks. The caller gets a read only view of the
+ * chunk limited to the byte code, which is the offset and the length of the byte code in the chunk. The bytes
+ * themselves are not on the heap.
+ * <p>
+ * There is an arena for each class loader, and most class loaders hold only a few classes. Therefore, the first chunk
+ * is just large enough for the first byte code, and every new chunk is twice as large as the previous one, up to
+ * {@link #MAX_CHUNK_SIZE}. A chunk is never smaller than the byte code put into it.
+ * <p>
+ * The memory of the arena is released when the arena and the views become unreachable, and the garbage collector
+ * reclaims the direct buffers. The class loader using the arena holds the reference, therefore the memory lives as
+ * long as the class loader.
+ */
+class ByteCodeArena {
+    static final int MAX_CHUNK_SIZE = 1024 * 1024;
+
+    private ByteBuffer current = null;
+
+    /**
+     * Copy the byte code into the arena.
+     *
+     * @param code the byte code
+     * @return a read only buffer containing the byte code from its position to its limit
+     */
+    synchronized ByteBuffer put(final byte[] code) {
+        if (current == null || current.remaining() < code.length) {
+            final var grown = current == null ? 0 : Math.min(MAX_CHUNK_SIZE, 2 * current.capacity());
+            current = ByteBuffer.allocateDirect(Math.max(grown, code.length));
+        }
+        final var start = current.position();
+        current.put(code);
+        final var view = current.asReadOnlyBuffer();
+        view.limit(start + code.length).position(start);
+        return view;
+    }
+}
@@ -3,6 +3,10 @@ package com.javax0.sourcebuddy;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 class ByteCodeGouger {
     // snipline JVM_VERSION
@@ -156,4 +160,152 @@ class ByteCodeGouger {
         dis.readLong();
     }
 
+
+    /**
+     * The summary of a class file used to decide what has to be recompiled.
+     *
+     * @param name       the binary name of the class
+     * @param api        the fingerprint of the non-private, non-synthetic part of the class: the class header, the
+     *                   fields with their constant values and the methods with their signatures and exceptions. The
+     *                   bodies of the methods are not included.
+     * @param constants  the fingerprint of the values of the non-private constant fields. The Java compiler copies
+     *                   these values into the classes using them, and the class files of those classes do not
+     *                   reference the class of the constant.
+     * @param references the binary names of the classes referenced in the constant pool, either as class entries or
+     *                   in descriptors and signatures
+     * @param supertypes the binary names of the superclass and the directly implemented interfaces
+     */
+    record Summary(String name, String api, String constants, Set<String> references, Set<String> supertypes) {
+    }
+
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_SYNTHETIC = 0x1000;
+    private static final Pattern TYPE_IN_DESCRIPTOR = Pattern.compile("L([\\w/$]+)[;<]");
+
+    /**
+     * Read the class file and create the summary.
+     *
+     * @param byteCode the byte code of the class
+     * @return the summary
+     */
+    static Summary summary(byte[] byteCode) {
+        try (final var is = new DataInputStream(new ByteArrayInputStream(byteCode))) {
+            checkMagic(is.readInt());
+            is.readUnsignedShort(); // minor
+            is.readUnsignedShort(); // major
+            final var count = is.readUnsignedShort();
+            final var strings = new String[count];
+            final var values = new String[count];
+            final var classes = new int[count];
+            for (int i = 1; i < count; i++) {
+                final var t = is.readUnsignedByte();
+                switch (t) {
+                    case 1 -> strings[i] = is.readUTF();
+                    case 3 -> values[i] = "I" + is.readInt();
+                    case 4 -> values[i] = "F" + is.readFloat();
+                    case 5 -> values[i++] = "J" + is.readLong();
+                    case 6 -> values[i++] = "D" + is.readDouble();
+                    case 7 -> classes[i] = is.readUnsignedShort();
+                    case 8 -> values[i] = "S" + is.readUnsignedShort();
+                    case 16, 19, 20 -> read2(is);
+                    case 9, 10, 11, 12, 17, 18 -> read4(is);
+                    case 15 -> {
+                        read1(is);
+                        read2(is);
+                    }
+                    default -> throw new RuntimeException("Invalid constant pool tag %d at position %d".formatted(t, i));
+                }
+            }
+            final var api = new Fingerprint();
+            final var constants = new Fingerprint();
+            api.add(Integer.toString(is.readUnsignedShort() & ~0x0020)); // access flags without ACC_SUPER
+            final var name = strings[classes[is.readUnsignedShort()]];
+            api.add(name);
+            final var supertypes = new HashSet<String>();
+            final var superIndex = is.readUnsignedShort();
+            api.add(superIndex == 0 ? "" : strings[classes[superIndex]]);
+            if (superIndex != 0) {
+                supertypes.add(strings[classes[superIndex]].replace('/', '.'));
+            }
+            final var interfaces = is.readUnsignedShort();
+            for (int i = 0; i < interfaces; i++) {
+                final var anInterface = strings[classes[is.readUnsignedShort()]];
+                api.add(anInterface);
+                supertypes.add(anInterface.replace('/', '.'));
+            }
+            for (int kind = 0; kind < 2; kind++) { // fields, then methods
+                final var members = is.readUnsignedShort();
+                for (int i = 0; i < members; i++) {
+                    final var access = is.readUnsignedShort();
+                    final var member = new ArrayList<String>();
+                    member.add(Integer.toString(access));
+                    member.add(strings[is.readUnsignedShort()]);
+                    member.add(strings[is.readUnsignedShort()]);
+                    final var attributes = is.readUnsignedShort();
+                    var hasConstant = false;
+                    for (int j = 0; j < attributes; j++) {
+                        final var attribute = strings[is.readUnsignedShort()];
+                        final var length = is.readInt();
+                        switch (attribute) {
+                            case "ConstantValue" -> {
+                                member.add(constant(strings, values, is.readUnsignedShort()));
+                                hasConstant = true;
+                            }
+                            case "Signature" -> member.add(strings[is.readUnsignedShort()]);
+                            case "Exceptions" -> {
+                                final var n = is.readUnsignedShort();
+                                for (int k = 0; k < n; k++) {
+                                    member.add(strings[classes[is.readUnsignedShort()]]);
+                                }
+                            }
+                            default -> is.skipNBytes(length);
+                        }
+                    }
+                    if ((access & (ACC_PRIVATE | ACC_SYNTHETIC)) == 0) {
+                        api.add(member);
+                        if (hasConstant) {
+                            constants.add(member);
+                        }
+                    }
+                }
+            }
+            final var attributes = is.readUnsignedShort();
+            for (int j = 0; j < attributes; j++) {
+                final var attribute = strings[is.readUnsignedShort()];
+                final var length = is.readInt();
+                if (attribute.equals("Signature")) {
+                    api.add(strings[is.readUnsignedShort()]);
+                } else {
+                    is.skipNBytes(length);
+                }
+            }
+            final var references = new HashSet<String>();
+            for (int i = 1; i < count; i++) {
+                if (classes[i] != 0) {
+                    references.add(strings[classes[i]]);
+                }
+                if (strings[i] != null && strings[i].indexOf(';') != -1) {
+                    final var matcher = TYPE_IN_DESCRIPTOR.matcher(strings[i]);
+                    while (matcher.find()) {
+                        references.add(matcher.group(1));
+                    }
+                }
+            }
+            final var names = new HashSet<String>();
+            for (final var reference : references) {
+                // array classes are referenced by their descriptors
+                final var element = reference.startsWith("[") ? reference.replaceAll("^\\[+L?|;$", "") : reference;
+                names.add(element.replace('/', '.'));
+            }
+            return new Summary(name.replace('/', '.'), api.hex(), constants.hex(), names, supertypes);
+        } catch (IOException | RuntimeException e) {
+            throw new RuntimeException("The binary class file seems to be corrupt.", e);
+        }
+    }
+
+    private static String constant(final String[] strings, final String[] values, final int index) {
+        final var value = values[index];
+        return value.startsWith("S") ? "S" + strings[Integer.parseInt(value.substring(1))] : value;
+    }
+
 }
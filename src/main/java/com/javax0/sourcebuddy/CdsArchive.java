@@ -0,0 +1,175 @@
+package com.javax0.sourcebuddy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Create and measure an AppCDS archive containing the classes of the library and the classes of the Java compiler.
+ * <p>
+ * Most of the time of the first compilation in a JVM is spent loading the classes of the {@code jdk.compiler}
+ * module. A class data sharing archive contains these classes already parsed and verified, and a JVM started with the
+ * archive loads them much faster. The archive is specific to the JDK build and to the class path, it has to be
+ * created again when any of them changes. The JVM archives classes only from JAR files, the class path must not
+ * contain non-empty directories.
+ * <p>
+ * Usage:
+ * <pre>
+ *     java -cp sourcebuddy.jar com.javax0.sourcebuddy.CdsArchive dump sourcebuddy.jsa
+ *     java -cp sourcebuddy.jar com.javax0.sourcebuddy.CdsArchive measure sourcebuddy.jsa
+ *     java -cp sourcebuddy.jar com.javax0.sourcebuddy.CdsArchive train
+ *     java -cp sourcebuddy.jar com.javax0.sourcebuddy.CdsArchive first
+ *     java -XX:SharedArchiveFile=sourcebuddy.jsa -cp sourcebuddy.jar:app.jar ...
+ * </pre>
+ * <ul>
+ *     <li>{@code dump} starts a new JVM with the same class path and module path, runs the training compilations
+ *     in it, and dumps the archive, as well as the list of the loaded classes into a file with the same name and
+ *     the extension {@code .classlist}. The classes of the application using the library can be included running
+ *     the dump with the application on the class path, and adding the training compilations of the application.</li>
+ *     <li>{@code measure} starts new JVMs with and without the archive, and prints the time of the first
+ *     compilation in each of them.</li>
+ *     <li>{@code train} runs the training compilations in the current JVM. It is used by {@code dump}.</li>
+ *     <li>{@code first} runs and times one compilation in the current JVM. It is used by {@code measure}.</li>
+ * </ul>
+ */
+public final class CdsArchive {
+    private static final int MEASURE_ROUNDS = 3;
+
+    private CdsArchive() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage();
+            return;
+        }
+        switch (args[0]) {
+            case "train" -> train();
+            case "first" -> System.out.println(first());
+            case "dump" -> {
+                final var archive = archive(args);
+                dump(archive);
+                System.out.println("Archive " + archive + " was created.");
+            }
+            case "measure" -> {
+                final var archive = archive(args);
+                final var without = measure(List.of());
+                final var with = measure(List.of("-XX:SharedArchiveFile=" + archive));
+                System.out.printf("first compilation without archive: %d ms%n", without / 1_000_000);
+                System.out.printf("first compilation with archive:    %d ms%n", with / 1_000_000);
+            }
+            default -> usage();
+        }
+    }
+
+    /**
+     * Run the training compilations.
+     */
+    static void train() throws Exception {
+        Prewarm.start(Prewarm.DEFAULT_ITERATIONS).get();
+    }
+
+    /**
+     * Run one compilation and measure its time.
+     *
+     * @return the time of the compilation in nanoseconds
+     */
+    static long first() throws Exception {
+        final var start = System.nanoTime();
+        Compiler.java().from("com.javax0.sourcebuddy.cds.First", """
+                        package com.javax0.sourcebuddy.cds;
+                        import java.util.function.Supplier;
+                        public class First implements Supplier<String> {
+                            record Pair(String a, String b) {}
+                            public String get() { return new Pair("a", "b").toString(); }
+                        }
+                        """)
+                .compile().load().newInstance("First", Supplier.class).get();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Start a new JVM, which runs the training compilations and dumps the archive and the class list.
+     *
+     * @param archive the archive file to create
+     */
+    static void dump(final Path archive) throws IOException, InterruptedException {
+        final var parent = archive.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        final var classList = Paths.get(archive + ".classlist");
+        // the JVM creates the archive read only, and it does not overwrite it
+        Files.deleteIfExists(archive);
+        run(command(List.of(
+                "-XX:ArchiveClassesAtExit=" + archive,
+                "-XX:DumpLoadedClassList=" + classList), "train"));
+    }
+
+    /**
+     * Start new JVMs, running one compilation each, and return the best time.
+     *
+     * @param jvmOptions the options of the JVM
+     * @return the shortest time of the first compilation in nanoseconds
+     */
+    static long measure(final List<String> jvmOptions) throws IOException, InterruptedException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            final var output = run(command(jvmOptions, "first")).trim();
+            final var lines = output.split("\\R");
+            best = Math.min(best, Long.parseLong(lines[lines.length - 1].trim()));
+        }
+        return best;
+    }
+
+    /**
+     * Create the command line starting a JVM with the same class path and module path as the current one, and
+     * running this class.
+     *
+     * @param jvmOptions the extra options of the JVM
+     * @param mode       the argument passed to this class
+     * @return the command line
+     */
+    static List<String> command(final List<String> jvmOptions, final String mode) {
+        final var command = new ArrayList<String>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        final var modulePath = System.getProperty("jdk.module.path");
+        final var classPath = System.getProperty("java.class.path");
+        if (classPath != null && !classPath.isEmpty()) {
+            command.add("-cp");
+            command.add(classPath);
+        }
+        if (modulePath != null && CdsArchive.class.getModule().isNamed()) {
+            command.add("--module-path");
+            command.add(modulePath);
+            command.add("-m");
+            command.add(CdsArchive.class.getModule().getName() + "/" + CdsArchive.class.getName());
+        } else {
+            command.add(CdsArchive.class.getName());
+        }
+        command.add(mode);
+        return command;
+    }
+
+    private static String run(final List<String> command) throws IOException, InterruptedException {
+        final var process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        final var output = new String(process.getInputStream().readAllBytes());
+        if (process.waitFor() != 0) {
+            throw new IOException("The command " + String.join(" ", command) + " failed:\n" + output);
+        }
+        return output;
+    }
+
+    private static Path archive(final String[] args) {
+        return Paths.get(args.length > 1 ? args[1] : "sourcebuddy.jsa");
+    }
+
+    private static void usage() {
+        System.out.println("Usage: java com.javax0.sourcebuddy.CdsArchive (dump|measure) [archive.jsa] | (train|first)");
+    }
+}
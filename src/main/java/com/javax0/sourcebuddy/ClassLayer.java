@@ -0,0 +1,110 @@
+package com.javax0.sourcebuddy;
+
+import javax.tools.JavaFileObject;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The classes compiled by a compiler presented to later compilations on the class path, see
+ * {@link Compiler#classPathLayer(Fluent.Compiled)}.
+ * <p>
+ * The layer takes a snapshot of the class files when it is created, so that the later compilations see the same
+ * classes even if the compiler of the layer is reset and compiles again. The class files are indexed by the package
+ * names to answer the listing requests of the Java compiler fast. A layer can be on top of another layer, when the
+ * compiler of the layer was itself compiling against a layer.
+ * <p>
+ * The classes compiled against the layer are loaded by a class loader whose parent is the class loader of the
+ * compiler of the layer, so the classes of the layer are loaded only once and shared by all the later compilations.
+ */
+final class ClassLayer implements ClassPathIndex {
+    private final Compiler compiler;
+    private final ClassLayer parent;
+    private final Map<String, MemoryFileObject> files = new HashMap<>();
+    private final Map<String, List<JavaFileObject>> packages = new HashMap<>();
+    private String digest = null;
+
+    /**
+     * @param compiler the compiler, which compiled the classes
+     * @param classes  the class files of the compiler
+     * @param parent   the layer the compiler compiled against, or {@code null}
+     */
+    ClassLayer(final Compiler compiler, final Map<String, MemoryFileObject> classes, final ClassLayer parent) {
+        this.compiler = compiler;
+        this.parent = parent;
+        for (final var e : classes.entrySet()) {
+            final var name = e.getKey();
+            final var file = new MemoryFileObject(name, ByteBuffer.wrap(e.getValue().getByteArray()).asReadOnlyBuffer());
+            files.put(name, file);
+            packages.computeIfAbsent(packageOf(name), k -> new ArrayList<>()).add(file);
+        }
+    }
+
+    /**
+     * @param name the binary name of the class
+     * @return the class file from this layer or from the layers below, or {@code null} if there is no such class
+     */
+    @Override
+    public JavaFileObject find(final String name) {
+        final var file = files.get(name);
+        return file != null || parent == null ? file : parent.find(name);
+    }
+
+    /**
+     * Add the class files of the package from this layer and from the layers below to the list.
+     *
+     * @param packageName the name of the package
+     * @param recurse     {@code true} to add the class files of the subpackages as well
+     * @param list        the list to add the class files to
+     */
+    @Override
+    public void list(final String packageName, final boolean recurse, final List<JavaFileObject> list) {
+        if (recurse) {
+            for (final var e : packages.entrySet()) {
+                if (e.getKey().equals(packageName) || packageName.isEmpty() || e.getKey().startsWith(packageName + ".")) {
+                    list.addAll(e.getValue());
+                }
+            }
+        } else {
+            list.addAll(packages.getOrDefault(packageName, List.of()));
+        }
+        if (parent != null) {
+            parent.list(packageName, recurse, list);
+        }
+    }
+
+    /**
+     * @return the class loader of the compiler of the layer. The classes of the compiler are loaded if they were not
+     * loaded yet.
+     * @throws ClassNotFoundException if the classes of the layer cannot be loaded
+     */
+    ClassLoader classLoader() throws ClassNotFoundException {
+        synchronized (compiler) {
+            return compiler.layerClassLoader();
+        }
+    }
+
+    /**
+     * @return the fingerprint of the class files of the layer and the layers below, used in the fingerprint of the
+     * compilations against the layer
+     */
+    synchronized String digest() {
+        if (digest == null) {
+            final var fingerprint = new Fingerprint();
+            for (final var e : new TreeMap<>(files).entrySet()) {
+                fingerprint.add(e.getKey()).add(e.getValue().getByteArray());
+            }
+            fingerprint.add(parent == null ? "" : parent.digest());
+            digest = fingerprint.hex();
+        }
+        return digest;
+    }
+
+    private static String packageOf(final String name) {
+        final var dot = name.lastIndexOf('.');
+        return dot == -1 ? "" : name.substring(0, dot);
+    }
+}
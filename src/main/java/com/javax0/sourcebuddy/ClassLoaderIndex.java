@@ -0,0 +1,187 @@
+package com.javax0.sourcebuddy;
+
+import javax.tools.JavaFileObject;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.stream.Stream;
+
+/**
+ * An index of the classes a class loader can load, see {@link Compiler#classLoader(ClassLoader)}.
+ * <p>
+ * The class path system property does not describe the classes of an application packaged as a fat JAR, with the
+ * libraries nested in the JAR and loaded by a custom class loader. The index is built from the resources of the class
+ * loader: the roots returned for the empty resource name, and the roots of the {@code META-INF/MANIFEST.MF} resources.
+ * A root is a directory or an entry prefix in a JAR, possibly nested, opened through the {@link JarURLConnection} of
+ * the URL handler of the class loader. The content of a class file is read calling
+ * {@link ClassLoader#getResourceAsStream(String)}, so the compiler sees the same class file the class loader loads.
+ * <p>
+ * The index is built once for a class loader and cached. It does not keep the class loader from being garbage
+ * collected. The {@link #digest() digest} of the index is calculated from the names, the sizes and the modification
+ * times or CRCs of the class files, and it is part of the fingerprint of the compilations using the index.
+ */
+final class ClassLoaderIndex implements ClassPathIndex {
+    private static final String MANIFEST = "META-INF/MANIFEST.MF";
+    private static final Map<ClassLoader, ClassLoaderIndex> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final WeakReference<ClassLoader> loader;
+    private final Map<String, JavaFileObject> files = new HashMap<>();
+    private final Map<String, List<JavaFileObject>> packages = new HashMap<>();
+    /**
+     * The names and the sizes and modification times or CRCs of the indexed class files.
+     */
+    private final List<String> stamps = new ArrayList<>();
+    private final String digest;
+
+    private ClassLoaderIndex(final ClassLoader loader) throws IOException {
+        this.loader = new WeakReference<>(loader);
+        for (final var url : Collections.list(loader.getResources(""))) {
+            root(url, "");
+        }
+        for (final var url : Collections.list(loader.getResources(MANIFEST))) {
+            root(url, MANIFEST);
+        }
+        Collections.sort(stamps);
+        digest = new Fingerprint().add(stamps).hex();
+        stamps.clear();
+    }
+
+    /**
+     * Get the index of the class loader. The index is created the first time and cached.
+     *
+     * @param loader the class loader
+     * @return the index
+     */
+    static ClassLoaderIndex of(final ClassLoader loader) {
+        synchronized (CACHE) {
+            var index = CACHE.get(loader);
+            if (index == null) {
+                try {
+                    index = new ClassLoaderIndex(loader);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot index the classes of the class loader " + loader, e);
+                }
+                CACHE.put(loader, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * @return the class loader of the index, or {@code null} if it was already garbage collected
+     */
+    ClassLoader loader() {
+        return loader.get();
+    }
+
+    /**
+     * @return the digest of the class files in the index
+     */
+    String digest() {
+        return digest;
+    }
+
+    /**
+     * @return the number of classes in the index
+     */
+    int size() {
+        return files.size();
+    }
+
+    @Override
+    public void list(final String packageName, final boolean recurse, final List<JavaFileObject> list) {
+        if (recurse) {
+            for (final var e : packages.entrySet()) {
+                if (e.getKey().equals(packageName) || packageName.isEmpty() || e.getKey().startsWith(packageName + ".")) {
+                    list.addAll(e.getValue());
+                }
+            }
+        } else {
+            list.addAll(packages.getOrDefault(packageName, List.of()));
+        }
+    }
+
+    @Override
+    public JavaFileObject find(final String name) {
+        return files.get(name);
+    }
+
+    /**
+     * Index the classes under a root.
+     *
+     * @param url      the URL of a resource in the root
+     * @param resource the name of the resource, the URL without the root
+     */
+    private void root(final URL url, final String resource) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            final Path path;
+            try {
+                path = Paths.get(url.toURI());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                return;
+            }
+            final var root = resource.isEmpty() ? path : path.getParent().getParent();
+            if (root != null && Files.isDirectory(root)) {
+                try (final Stream<Path> walk = Files.walk(root)) {
+                    for (final var file : walk.filter(Files::isRegularFile).toList()) {
+                        final var stamp = file.toFile().length() + ":" + file.toFile().lastModified();
+                        add(root.relativize(file).toString().replace(File.separatorChar, '/'), stamp);
+                    }
+                }
+            }
+        } else if (url.openConnection() instanceof JarURLConnection connection) {
+            final var entry = connection.getEntryName() == null ? "" : connection.getEntryName();
+            final var prefix = entry.substring(0, entry.length() - resource.length());
+            final var jar = connection.getJarFile();
+            for (final var e : Collections.list(jar.entries())) {
+                if (!e.isDirectory() && e.getName().startsWith(prefix)) {
+                    add(e.getName().substring(prefix.length()), e.getSize() + ":" + e.getCrc());
+                }
+            }
+        }
+    }
+
+    /**
+     * Add a resource to the index if it is a class file.
+     *
+     * @param resource the name of the resource relative to the root
+     * @param stamp    the size and the modification time or the CRC of the resource
+     */
+    private void add(final String resource, final String stamp) {
+        if (!resource.endsWith(".class") || resource.startsWith("META-INF/") || resource.equals("module-info.class")) {
+            return;
+        }
+        final var name = resource.substring(0, resource.length() - ".class".length()).replace('/', '.');
+        if (files.containsKey(name)) {
+            return;
+        }
+        final URI uri;
+        try {
+            uri = new URI("classloader", null, "/" + resource, null);
+        } catch (URISyntaxException e) {
+            return;
+        }
+        final var file = new IndexedClassFile(uri, name, () -> {
+            final var classLoader = loader.get();
+            return classLoader == null ? null : classLoader.getResourceAsStream(resource);
+        });
+        files.put(name, file);
+        stamps.add(resource + ":" + stamp);
+        final var dot = name.lastIndexOf('.');
+        packages.computeIfAbsent(dot == -1 ? "" : name.substring(0, dot), k -> new ArrayList<>()).add(file);
+    }
+}
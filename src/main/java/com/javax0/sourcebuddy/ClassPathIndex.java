@@ -0,0 +1,28 @@
+package com.javax0.sourcebuddy;
+
+import javax.tools.JavaFileObject;
+import java.util.List;
+
+/**
+ * An index of class files answering the class path lookups of the Java compiler instead of the standard file manager.
+ * <p>
+ * The Java compiler lists the classes of every imported and implicitly referenced package, and it asks for the class
+ * files by name. An index answers these requests from a package to class files map, which is built once.
+ */
+interface ClassPathIndex {
+
+    /**
+     * Add the class files of the package to the list.
+     *
+     * @param packageName the name of the package
+     * @param recurse     {@code true} to add the class files of the subpackages as well
+     * @param list        the list to add the class files to
+     */
+    void list(String packageName, boolean recurse, List<JavaFileObject> list);
+
+    /**
+     * @param name the binary name of the class
+     * @return the class file, or {@code null} if there is no such class in the index
+     */
+    JavaFileObject find(String name);
+}
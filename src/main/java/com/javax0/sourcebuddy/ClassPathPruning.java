@@ -0,0 +1,190 @@
+package com.javax0.sourcebuddy;
+
+import javax.tools.JavaFileObject;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * The class path entries needed by the compilations with the same import footprint, see
+ * {@link Compiler#pruneClassPath()}.
+ * <p>
+ * The import footprint of a compilation is the set of the import declarations and the packages of the sources,
+ * together with the compiler options. The entries needed are learned from a compilation using the full class path.
+ * The class path lookups of that compilation are answered by the {@link PackageIndex package index}, and the index is
+ * wrapped by a {@link Recorder}, which records the entries of the class files the compiler reads. The later
+ * compilations with the same footprint get only these entries on the class path.
+ * <p>
+ * The learned entries are kept in memory for the last {@value #MAX_FOOTPRINTS} footprints, shared by all the
+ * compilers of the JVM.
+ */
+final class ClassPathPruning {
+    private static final int MAX_FOOTPRINTS = 1000;
+    private static final Pattern IMPORT = Pattern.compile("^\\s*import\\s+(static\\s+)?([\\w.]+(?:\\.\\*)?)\\s*;", Pattern.MULTILINE);
+    private static final Set<String> CLASS_PATH_OPTIONS = Set.of("-cp", "-classpath", "--class-path");
+    private static final Set<String> PROCESSOR_OPTIONS = Set.of("-proc:none", "-processorpath", "--processor-path", "--processor-module-path");
+
+    private static final Map<String, Set<String>> LEARNED = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Set<String>> eldest) {
+            return size() > MAX_FOOTPRINTS;
+        }
+    };
+
+    private ClassPathPruning() {
+    }
+
+    /**
+     * @param compilerOptions the options given by the caller, not including the path options
+     * @param options         the options passed to the compiler including the path options
+     * @return {@code true} if the class path can be pruned. It cannot be pruned when the caller specified the class
+     * path, or there is no class path in the options.
+     */
+    static boolean applies(final List<String> compilerOptions, final List<String> options) {
+        return compilerOptions.stream().noneMatch(CLASS_PATH_OPTIONS::contains) && options.contains("--class-path");
+    }
+
+    /**
+     * Calculate the import footprint of the sources.
+     *
+     * @param sources the sources to compile
+     * @param options the options passed to the compiler including the path options
+     * @return the fingerprint of the imports and the packages of the sources and the options
+     */
+    static String footprint(final List<StringJavaSource> sources, final List<String> options) {
+        final var imports = new TreeSet<String>();
+        final var packages = new TreeSet<String>();
+        for (final var source : sources) {
+            final var matcher = IMPORT.matcher(source.code);
+            while (matcher.find()) {
+                imports.add(matcher.group(1) == null ? matcher.group(2) : "static " + matcher.group(2));
+            }
+            final var dot = source.binaryName.lastIndexOf('.');
+            packages.add(dot == -1 ? "" : source.binaryName.substring(0, dot));
+        }
+        return new Fingerprint().add(imports).add(packages).add(options).hex();
+    }
+
+    /**
+     * @param footprint the import footprint
+     * @return the class path entries learned for the footprint in the order of the class path, or {@code null} if
+     * nothing was learned yet
+     */
+    static List<String> learned(final String footprint) {
+        final Set<String> entries;
+        synchronized (LEARNED) {
+            entries = LEARNED.get(footprint);
+        }
+        if (entries == null) {
+            return null;
+        }
+        return PackageIndex.classPathEntries().stream().filter(entries::contains).toList();
+    }
+
+    /**
+     * Add the entries to the entries learned for the footprint. The entries are added and not replaced, because the
+     * sources with the same footprint can reference different classes using fully qualified names.
+     *
+     * @param footprint the import footprint
+     * @param entries   the entries the compiler read class files from
+     */
+    static void learn(final String footprint, final Set<String> entries) {
+        synchronized (LEARNED) {
+            final var known = LEARNED.get(footprint);
+            final var all = new TreeSet<>(entries);
+            if (known != null) {
+                all.addAll(known);
+            }
+            LEARNED.put(footprint, Set.copyOf(all));
+        }
+    }
+
+    /**
+     * Replace the class path in the options with the entries. When the annotation processors are discovered on the
+     * class path, the full class path is used as the processor path, so the same processors run.
+     *
+     * @param compilerOptions the options given by the caller, not including the path options
+     * @param options         the options passed to the compiler including the path options
+     * @param entries         the class path entries to keep
+     * @return the new options
+     */
+    static List<String> prune(final List<String> compilerOptions, final List<String> options, final List<String> entries) {
+        final var pruned = new ArrayList<>(options);
+        final var i = pruned.indexOf("--class-path");
+        final var full = pruned.get(i + 1);
+        pruned.set(i + 1, String.join(File.pathSeparator, entries));
+        if (compilerOptions.stream().noneMatch(PROCESSOR_OPTIONS::contains)) {
+            pruned.add("--processor-path");
+            pruned.add(full);
+        }
+        return pruned;
+    }
+
+    /**
+     * An index without classes. The Java compiler reads an empty class path as the current directory, therefore an
+     * empty pruned class path is presented to the compiler through this index.
+     */
+    static final ClassPathIndex EMPTY = new ClassPathIndex() {
+        @Override
+        public void list(final String packageName, final boolean recurse, final List<JavaFileObject> list) {
+        }
+
+        @Override
+        public JavaFileObject find(final String name) {
+            return null;
+        }
+    };
+
+    /**
+     * An index recording the class path entries of the class files the compiler reads. The class files listed, but
+     * not read, do not count. The class files of the underlying index are wrapped once, so the compiler gets the
+     * same file object for the same class every time.
+     */
+    static final class Recorder implements ClassPathIndex {
+        private final ClassPathIndex index;
+        private final Map<JavaFileObject, JavaFileObject> files = new ConcurrentHashMap<>();
+        private final Set<String> used = ConcurrentHashMap.newKeySet();
+
+        Recorder(final ClassPathIndex index) {
+            this.index = index;
+        }
+
+        /**
+         * @return the class path entries of the class files read by the compiler
+         */
+        Set<String> used() {
+            return used;
+        }
+
+        @Override
+        public void list(final String packageName, final boolean recurse, final List<JavaFileObject> list) {
+            final var listed = new ArrayList<JavaFileObject>();
+            index.list(packageName, recurse, listed);
+            for (final var file : listed) {
+                list.add(record(file));
+            }
+        }
+
+        @Override
+        public JavaFileObject find(final String name) {
+            final var file = index.find(name);
+            return file == null ? null : record(file);
+        }
+
+        private JavaFileObject record(final JavaFileObject file) {
+            if (file instanceof IndexedClassFile indexed && indexed.root() != null) {
+                return files.computeIfAbsent(file, k -> new IndexedClassFile(indexed.toUri(), indexed.binaryName(), indexed.root(), () -> {
+                    used.add(indexed.root());
+                    return indexed.openInputStream();
+                }));
+            }
+            return file;
+        }
+    }
+}
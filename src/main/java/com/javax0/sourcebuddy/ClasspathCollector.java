@@ -2,7 +2,13 @@ package com.javax0.sourcebuddy;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.jar.JarFile;
@@ -13,55 +19,150 @@ import java.util.jar.Manifest;
  * system property {@code java.class.path}. The class path entries are collected recursively. If a JAR file is listed
  * in the class path, then the manifest of the JAR file is read and the class path entries listed in the manifest are
  * also added to the list of class path entries.
+ * <p>
+ * The entries are resolved to their canonical paths and the manifests are read in parallel, level by level: first
+ * the entries of the class path, then the entries listed in their manifests, and so on. The order of the result is
+ * still the order of a depth first traversal, every entry followed by the entries listed in its manifest. A file is
+ * read only once for every canonical path, the different paths of the same file, like {@code lib/../lib/a.jar} and
+ * {@code lib/a.jar}, share the result, so the manifests listing each other with relative paths do not loop.
+ * <p>
+ * The result is cached for the value of the {@code java.class.path} system property. The entries are collected again
+ * only when the property changes.
  */
 public class ClasspathCollector {
 
-    private final Set<String> processedJars = new HashSet<>();
-    private final Set<String> entries = new HashSet<>();
+    private static volatile Collected cached = null;
+
+    /**
+     * The entries collected for a class path.
+     *
+     * @param classpath the value of the {@code java.class.path} system property
+     * @param entries   the entries collected
+     */
+    private record Collected(String classpath, Set<String> entries) {
+    }
+
+    /**
+     * A resolved path.
+     *
+     * @param canonicalPath the canonical path, or {@code null} if it cannot be resolved
+     * @param children      the paths listed in the manifest of the JAR file, empty if it is not a JAR file
+     */
+    private record Node(String canonicalPath, List<File> children) {
+    }
+
+    private final Set<String> entries = new LinkedHashSet<>();
+    private final Map<File, Node> nodes = new HashMap<>();
+    private final Map<String, Node> canonicalNodes = new HashMap<>();
 
     /**
      * Get the class path entries.
      *
-     * @return the set of class path entries
+     * @return the set of class path entries. The set is a copy, it can be modified by the caller.
      */
     public static Set<String> getEntries() {
-        final var collector = new ClasspathCollector();
-        String classpath = System.getProperty("java.class.path");
-        collector.processClassPathEntries(classpath);
-        return collector.entries;
+        final String classpath = System.getProperty("java.class.path");
+        var collected = cached;
+        if (collected == null || !collected.classpath.equals(classpath)) {
+            final var collector = new ClasspathCollector();
+            collector.processClassPathEntries(classpath);
+            collected = new Collected(classpath, collector.entries);
+            cached = collected;
+        }
+        return new LinkedHashSet<>(collected.entries);
     }
 
     private void processClassPathEntries(final String classpath) {
         StringTokenizer tokenizer = new StringTokenizer(classpath, File.pathSeparator);
-
+        final var roots = new ArrayList<File>();
         while (tokenizer.hasMoreTokens()) {
-            String path = tokenizer.nextToken();
-            processPath(path, null);
+            roots.add(new File(tokenizer.nextToken()));
+        }
+        resolve(roots);
+        final var processed = new HashSet<String>();
+        for (final var root : roots) {
+            collect(root, processed);
+        }
+    }
+
+    /**
+     * Resolve the files and the files listed in their manifests, level by level, in parallel.
+     *
+     * @param files the files to resolve
+     */
+    private void resolve(final List<File> files) {
+        var level = files.stream().distinct().filter(file -> !nodes.containsKey(file)).toList();
+        while (!level.isEmpty()) {
+            final var canonicalPaths = level.parallelStream().map(ClasspathCollector::canonicalPath).toList();
+            // the files of the level with a canonical path not read yet, one file for each canonical path
+            final var unread = new LinkedHashMap<String, File>();
+            for (int i = 0; i < level.size(); i++) {
+                final var canonicalPath = canonicalPaths.get(i);
+                if (canonicalPath == null) {
+                    nodes.put(level.get(i), new Node(null, List.of()));
+                } else if (!canonicalNodes.containsKey(canonicalPath)) {
+                    unread.putIfAbsent(canonicalPath, level.get(i));
+                }
+            }
+            final var read = unread.entrySet().parallelStream()
+                    .map(e -> new Node(e.getKey(), manifestClassPath(e.getValue(), e.getKey()))).toList();
+            final var next = new ArrayList<File>();
+            for (final var node : read) {
+                canonicalNodes.put(node.canonicalPath, node);
+                next.addAll(node.children);
+            }
+            for (int i = 0; i < level.size(); i++) {
+                if (canonicalPaths.get(i) != null) {
+                    nodes.put(level.get(i), canonicalNodes.get(canonicalPaths.get(i)));
+                }
+            }
+            level = next.stream().distinct().filter(file -> !nodes.containsKey(file)).toList();
         }
     }
 
     /**
-     * Process the path. If the path is a directory, then it is added to the
-     * entries. If the path is a jar file, then it is added to the entries and
-     * the jar file is processed recursively.
+     * Add the entry and the entries listed in its manifest to the result, depth first.
      *
-     * @param path    the path to process
-     * @param baseDir the base directory to use when the path is relative, or {@code  null} when there is no possibility
-     *                to use relative paths. The latter is the case when the path is listed in the system class path.
-     *                When the path is listed in a JAR file Class-Path manifest, then the base directory is the directory
-     *                where the JAR file is located.
+     * @param file      the resolved file
+     * @param processed the canonical paths already added
+     */
+    private void collect(final File file, final Set<String> processed) {
+        final var node = nodes.get(file);
+        if (node.canonicalPath == null || !processed.add(node.canonicalPath)) {
+            return;
+        }
+        entries.add(node.canonicalPath);
+        for (final var child : node.children) {
+            collect(child, processed);
+        }
+    }
+
+    /**
+     * @param file the path. When the path is listed in a JAR file Class-Path manifest, then it is relative to the
+     *             directory where the JAR file is located.
+     * @return the canonical path, or {@code null} if it cannot be resolved
      */
-    private void processPath(final String path, final File baseDir) {
-        final File file = baseDir != null ? new File(baseDir, path) : new File(path);
+    private static String canonicalPath(final File file) {
         try {
-            final String canonicalPath = file.getCanonicalPath();
+            return file.getCanonicalPath();
+        } catch (IOException ignore) {
+            return null;
+        }
+    }
 
-            if (!processedJars.contains(canonicalPath)) {
-                processedJars.add(canonicalPath);
-                entries.add(canonicalPath);
-                if (file.isFile() && canonicalPath.endsWith(".jar")) {
-                    processJarFile(file);
-                }
+    /**
+     * Process the path. If the path is a directory, then it is an entry. If the path is a jar file, then it is an
+     * entry and the paths listed in the manifest of the jar file are also processed.
+     *
+     * @param file          the path to process
+     * @param canonicalPath the canonical path of the file
+     * @return the paths listed in the manifest of the JAR file, empty if it is not a JAR file
+     */
+    private static List<File> manifestClassPath(final File file, final String canonicalPath) {
+        final var children = new ArrayList<File>();
+        try {
+            if (file.isFile() && canonicalPath.endsWith(".jar")) {
+                processJarFile(file, children);
             }
         } catch (IOException ignore) {
             // Ifa file is not accessible, or has a bad JAR format, then it will cause and issue
@@ -72,9 +173,10 @@ public class ClasspathCollector {
             // and the execution for some magical reason (all classes are found sooner) then ignoring the exception
             // is also not a problem.
         }
+        return children;
     }
 
-    private void processJarFile(final File jarFile) throws IOException {
+    private static void processJarFile(final File jarFile, final List<File> children) throws IOException {
         try (JarFile jar = new JarFile(jarFile)) {
             Manifest manifest = jar.getManifest();
             if (manifest != null) {
@@ -83,7 +185,7 @@ public class ClasspathCollector {
                     StringTokenizer manifestTokenizer = new StringTokenizer(classpath, " ");
                     while (manifestTokenizer.hasMoreTokens()) {
                         String manifestPath = manifestTokenizer.nextToken();
-                        processPath(manifestPath, jarFile.getParentFile());
+                        children.add(new File(jarFile.getParentFile(), manifestPath));
                     }
                 }
             }
@@ -91,4 +193,3 @@ public class ClasspathCollector {
     }
 
 }
-
@@ -0,0 +1,224 @@
+package com.javax0.sourcebuddy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Calculate a digest of the class path and module path entries.
+ * <p>
+ * The compiled byte code depends not only on the sources and the compiler options, but also on the classes on the
+ * class path. The digest of the entries changes when an entry is added, removed or changed, and it is part of the
+ * fingerprint of a compilation, which is not {@link Compiler#isolate() isolated}. This way a persistent cache does not
+ * serve byte codes compiled against a different version of a library.
+ * <p>
+ * The digest of an entry is calculated from the size and the modification time of the file, or of the files in the
+ * directory. Optionally it also includes the hash of the content. The entries are processed in parallel, and the
+ * digest of an entry is recalculated only when its size or modification time changed since the last calculation.
+ * <p>
+ * The digest of the system class path and module path, which the compiler uses, is available calling
+ * {@link #system()}. It checks the entries at most once in every
+ * {@code sourcebuddy.classpathFingerprint.interval} milliseconds (default 1000), and it hashes the content when the
+ * system property {@code sourcebuddy.classpathFingerprint.content} is {@code true}. The class path and module path
+ * entries given in the compiler options are digested by the services returned by {@link #of(List)}. They hash the
+ * content the same way, but they check the entries every time the digest is requested.
+ */
+public final class ClasspathFingerprint {
+    private static final long SYSTEM_INTERVAL = Long.getLong("sourcebuddy.classpathFingerprint.interval", 1000L);
+    private static volatile ClasspathFingerprint system = null;
+    private static final int MAX_SERVICES = 100;
+    private static final Map<List<String>, ClasspathFingerprint> SERVICES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<List<String>, ClasspathFingerprint> eldest) {
+            return size() > MAX_SERVICES;
+        }
+    };
+
+    /**
+     * The metadata of an entry when its digest was calculated.
+     *
+     * @param metadata the hash of the sizes and modification times
+     * @param digest   the digest of the entry
+     */
+    private record EntryState(String metadata, String digest) {
+    }
+
+    private final List<String> entries;
+    private final boolean contentHash;
+    private final long interval;
+    private final Map<String, EntryState> states = new ConcurrentHashMap<>();
+    private final AtomicLong recalculated = new AtomicLong();
+    private volatile String digest = null;
+    private volatile long checked = 0;
+
+    /**
+     * Create a fingerprint service for the entries.
+     *
+     * @param entries     the class path or module path entries, directories or JAR files. The order of the entries
+     *                    is significant.
+     * @param contentHash {@code true} if the content of the files is to be hashed in addition to the size and the
+     *                    modification time
+     */
+    public ClasspathFingerprint(final Collection<String> entries, final boolean contentHash) {
+        this(entries, contentHash, 0);
+    }
+
+    private ClasspathFingerprint(final Collection<String> entries, final boolean contentHash, final long interval) {
+        this.entries = List.copyOf(entries);
+        this.contentHash = contentHash;
+        this.interval = interval;
+    }
+
+    /**
+     * @return the fingerprint service of the class path and module path of the running JVM
+     */
+    public static ClasspathFingerprint system() {
+        if (system == null) {
+            synchronized (ClasspathFingerprint.class) {
+                if (system == null) {
+                    final var entries = new LinkedHashSet<>(ClasspathCollector.getEntries());
+                    final var modulePath = System.getProperty("jdk.module.path");
+                    if (modulePath != null) {
+                        entries.addAll(List.of(modulePath.split(File.pathSeparator)));
+                    }
+                    system = new ClasspathFingerprint(entries, Boolean.getBoolean("sourcebuddy.classpathFingerprint.content"), SYSTEM_INTERVAL);
+                }
+            }
+        }
+        return system;
+    }
+
+    /**
+     * Get the fingerprint service of the entries. The content is hashed the same way as by the {@link #system()}
+     * service, but the entries are checked every time the digest is requested. The services are cached, so the digest
+     * of an unchanged entry is not recalculated.
+     *
+     * @param entries the class path or module path entries
+     * @return the fingerprint service
+     */
+    static ClasspathFingerprint of(final List<String> entries) {
+        synchronized (SERVICES) {
+            return SERVICES.computeIfAbsent(List.copyOf(entries), k -> new ClasspathFingerprint(k,
+                    Boolean.getBoolean("sourcebuddy.classpathFingerprint.content"), 0));
+        }
+    }
+
+    /**
+     * Get the digest of the entries. The entries are checked, unless they were checked within the interval of the
+     * service, and the digest of the changed entries is recalculated.
+     *
+     * @return the digest as a hexadecimal string
+     */
+    public String digest() {
+        final var now = System.currentTimeMillis();
+        if (digest == null || now - checked >= interval) {
+            final var digests = entries.parallelStream().map(this::entryDigest).toList();
+            final var fingerprint = new Fingerprint();
+            for (int i = 0; i < entries.size(); i++) {
+                fingerprint.add(entries.get(i)).add(digests.get(i));
+            }
+            digest = fingerprint.hex();
+            checked = now;
+        }
+        return digest;
+    }
+
+    /**
+     * @return the number of times the digest of an entry was calculated, because it was not calculated before, or
+     * it changed
+     */
+    public long recalculated() {
+        return recalculated.get();
+    }
+
+    /**
+     * @return the entries of this service
+     */
+    public List<String> entries() {
+        return entries;
+    }
+
+    private String entryDigest(final String entry) {
+        final var path = Paths.get(entry);
+        final List<Path> files;
+        final var metadata = new Fingerprint();
+        try {
+            files = files(path);
+            for (final var file : files) {
+                final var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                metadata.add(path.relativize(file).toString())
+                        .add(Long.toString(attributes.size()))
+                        .add(Long.toString(attributes.lastModifiedTime().toMillis()));
+            }
+        } catch (NoSuchFileException e) {
+            states.remove(entry);
+            return "missing";
+        } catch (IOException | UncheckedIOException e) {
+            states.remove(entry);
+            return "unreadable";
+        }
+        final var hex = metadata.hex();
+        final var state = states.get(entry);
+        if (state != null && state.metadata.equals(hex)) {
+            return state.digest;
+        }
+        recalculated.incrementAndGet();
+        final var digest = contentHash ? contentDigest(path, files) : hex;
+        states.put(entry, new EntryState(hex, digest));
+        return digest;
+    }
+
+    /**
+     * @param path the entry
+     * @return the regular files of the entry in a stable order, the entry itself if it is a file
+     */
+    private static List<Path> files(final Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            if (!Files.exists(path)) {
+                throw new NoSuchFileException(path.toString());
+            }
+            return List.of(path);
+        }
+        try (final Stream<Path> walk = Files.walk(path)) {
+            return walk.filter(Files::isRegularFile).sorted().toList();
+        }
+    }
+
+    private static String contentDigest(final Path path, final List<Path> files) {
+        try {
+            final var md = MessageDigest.getInstance("SHA-256");
+            final var buffer = new byte[64 * 1024];
+            for (final var file : files) {
+                md.update(path.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                try (final InputStream in = Files.newInputStream(file)) {
+                    for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                        md.update(buffer, 0, n);
+                    }
+                }
+            }
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        } catch (IOException e) {
+            return "unreadable";
+        }
+    }
+}
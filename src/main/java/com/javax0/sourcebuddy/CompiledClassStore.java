@@ -0,0 +1,78 @@
+package com.javax0.sourcebuddy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Service provider interface for storing compiled classes outside the compiler.
+ * <p>
+ * A compiler configured with a store (see {@link Compiler#cache(CompiledClassStore)}) calculates the fingerprint of
+ * the compilation and asks the store for the byte codes before invoking the Java compiler. When the store has the
+ * entry, the compiler uses the byte codes from the store and does not compile the sources. After a successful
+ * compilation the compiler stores the byte codes in the store.
+ * <p>
+ * An entry contains all the class files created by the compilation, including the inner, anonymous and local
+ * classes. The keys of the map are the binary names of the classes, the values are the byte codes. This is the same
+ * format that {@link ByteClassLoader#addByteCodes(Map, List)} uses.
+ * <p>
+ * The library provides {@link DiskCache}, storing the entries in a local directory, and {@link MemoryClassStore},
+ * keeping the entries in memory. The directory of a {@link DiskCache} may be on a shared file system, thus it can
+ * also play the role of a shared tier for several nodes. Other implementations may store the entries in a network
+ * cache. The methods of the implementations must be thread safe, and they should not throw exceptions when the
+ * storage is not available. A store not available should behave as an empty store.
+ */
+public interface CompiledClassStore {
+
+    /**
+     * Get the byte codes stored for the fingerprint.
+     *
+     * @param key the fingerprint of the compilation, a hexadecimal string
+     * @return the map of the binary names to the byte codes, or empty if there is no entry for the key
+     */
+    Optional<Map<String, byte[]>> load(String key);
+
+    /**
+     * Store the byte codes for the fingerprint.
+     *
+     * @param key     the fingerprint of the compilation, a hexadecimal string
+     * @param classes the map of the binary names to the byte codes
+     */
+    void store(String key, Map<String, byte[]> classes);
+
+    /**
+     * Create a store that consults the given stores in order.
+     * <p>
+     * The first store having the entry provides the byte codes, and the entry is also stored in the stores before
+     * it. A typical use is to put a {@link MemoryClassStore} in front of a shared store, so that only the first use of
+     * an entry on a node goes to the shared store. Storing an entry stores it in all the stores.
+     *
+     * @param tiers the stores in the order they are consulted
+     * @return the tiered store
+     */
+    static CompiledClassStore tiered(final CompiledClassStore... tiers) {
+        final var stores = List.of(tiers);
+        return new CompiledClassStore() {
+            @Override
+            public Optional<Map<String, byte[]>> load(final String key) {
+                for (int i = 0; i < stores.size(); i++) {
+                    final var classes = stores.get(i).load(key);
+                    if (classes.isPresent()) {
+                        for (int j = 0; j < i; j++) {
+                            stores.get(j).store(key, classes.get());
+                        }
+                        return classes;
+                    }
+                }
+                return Optional.empty();
+            }
+
+            @Override
+            public void store(final String key, final Map<String, byte[]> classes) {
+                for (final var store : stores) {
+                    store.store(key, classes);
+                }
+            }
+        };
+    }
+}
@@ -1,11 +1,18 @@
 package com.javax0.sourcebuddy;
 
+import com.sun.source.util.JavacTask;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.DiagnosticListener;
 import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
 import javax.tools.ToolProvider;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.Charset;
@@ -14,7 +21,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.jar.JarFile;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -36,11 +45,13 @@ import java.util.stream.Stream;
 public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.CanCompile, Fluent.SpecifyNestHiddenNamed, Fluent.Compiled {
 
     /**
-     * Class loading options, {@code REVERSE}, {@code NORMAL}, and {@code SLOPPY}. The default is {@code NORMAL}.
+     * Class loading options, {@code REVERSE}, {@code NORMAL}, {@code SLOPPY}, and {@code OFF_HEAP}. The default is
+     * {@code NORMAL}.
      *
      * {@code REVERSE} will try to load the class before asking the parent class loader to load it.
      * {@code NORMAL} will ask the parent class loader to load the class first. This is the traditional behavior.
      * {@code SLOPPY} will try to load the class even if there was an error during the compilation.
+     * {@code OFF_HEAP} will keep the byte codes in the class loader outside the Java heap.
      *
      */
     public enum LoaderOption {
@@ -58,6 +69,11 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
         // The calling code may still want to load the classes compiled successfully.
         // This option will ignore such errors and will try to load the rest of the classes.
         // The stream of failed classes can be obtained using the `Loaded.streamFailed()` method.
+        OFF_HEAP, // to store the byte codes outside the Java heap.
+        // The class loader keeps the byte codes of the classes as long as the class loader lives, and it lives as long as any of the classes.
+        // With this option, the byte codes are stored in direct memory, and they are passed to the JVM from there.
+        // The class files of the compiler are switched to the same direct memory copy, the compiler keeps no copy on the heap.
+        // It reduces the heap size and the garbage collection pressure when there are many generated classes.
         // end snippet
     }
 
@@ -79,6 +95,12 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
 
     private final List<String> classesAnnotated = new ArrayList<>();
     private final List<String> modules = new ArrayList<>();
+    private CompiledClassStore cache = null;
+    private boolean coalesce = false;
+    private FingerprintMode fingerprintMode = FingerprintMode.RAW;
+    private HotManifest manifest = null;
+    private CompilerSession session = null;
+    private UnitTracker tracker = null;
 
     /**
      * Exception type that the compilation process throws if the source code cannot be compiled. The message of the
@@ -394,6 +416,28 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
     private final JavaCompiler compiler;
     private final InMemoryJavaFileManager manager;
     private ClassLoader classLoader = null;
+    /**
+     * The classes of an earlier compilation this compiler compiles against, or {@code null}.
+     */
+    private ClassLayer layer = null;
+    /**
+     * The snapshot of the classes of this compiler used as a layer by later compilations, or {@code null} if it was
+     * not created since the last compilation.
+     */
+    private ClassLayer asLayer = null;
+    /**
+     * The class loader, whose classes the compilation uses instead of the class path, or {@code null}.
+     */
+    private ClassLoader parentLoader = null;
+    private boolean indexClassPath = false;
+    private Path indexDirectory = null;
+    private boolean pruneClassPath = false;
+    private boolean signaturesOnly = false;
+    private boolean signatureStubs = false;
+    /**
+     * The directories the compiler reads the sources from when they are needed, see {@link #sourcePath(Path)}.
+     */
+    private final List<Path> sourcePath = new ArrayList<>();
 
     private enum CompilationState {
         ADD_SOURCE,
@@ -403,6 +447,13 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
 
     private CompilationState state = CompilationState.ADD_SOURCE;
 
+    /**
+     * The static {@code compile(...)} methods {@link #coalesce() coalesce} the compilations when the system property
+     * {@code sourcebuddy.coalesce} is {@code true}. It is off by default, because coalescing calculates the
+     * fingerprint of the compilation, including the digest of the class path, for every call.
+     */
+    private static final boolean STATIC_COALESCE = Boolean.getBoolean("sourcebuddy.coalesce");
+
     /**
      * This method provides the simple API for the compilation. It can be used to compile one single Java source file
      * specified as a {@link String}.
@@ -415,9 +466,20 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
      * @return the loaded class or null if the compilation was not successful
      */
     public static Class<?> compile(final String binaryName, final String sourceCode) throws CompileException, ClassNotFoundException {
-        final var compiler = Compiler.java();
-        final var loaded = compiler.from(binaryName, sourceCode).compile().load();
-        return loaded.get(binaryName);
+        final var key = CLASS_CACHE.maxSize() == 0 ? null : staticCompileKey(binaryName, sourceCode);
+        if (key != null) {
+            final var cached = CLASS_CACHE.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        final var compiler = Compiler.java().from(binaryName, sourceCode);
+        final var loaded = (STATIC_COALESCE ? compiler.coalesce() : compiler).compile().load();
+        final var klass = loaded.get(binaryName);
+        if (key != null) {
+            CLASS_CACHE.put(key, klass);
+        }
+        return klass;
     }
 
     /**
@@ -452,9 +514,78 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
      * @throws ClassNotFoundException if the class name cannot be identified from the source code. See  {@link #from(String)}.
      */
     public static Class<?> compile(final String sourceCode) throws CompileException, ClassNotFoundException {
-        final var compiler = Compiler.java();
-        final var loaded = compiler.from(sourceCode).compile().load();
-        return loaded.get();
+        final var key = CLASS_CACHE.maxSize() == 0 ? null : staticCompileKey(null, sourceCode);
+        if (key != null) {
+            final var cached = CLASS_CACHE.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        final var compiler = Compiler.java().from(sourceCode);
+        final var loaded = (STATIC_COALESCE ? compiler.coalesce() : compiler).compile().load();
+        final var klass = loaded.get();
+        if (key != null) {
+            CLASS_CACHE.put(key, klass);
+        }
+        return klass;
+    }
+
+    /**
+     * The process wide cache of the classes compiled by the static {@code compile(...)} methods.
+     * <p>
+     * The cache is switched off by default. The initial size can be set using the system property
+     * {@code sourcebuddy.classCache.size}, and setting the system property {@code sourcebuddy.classCache.soft} to
+     * {@code true} makes the cache reference the classes softly.
+     */
+    private static final BoundedCache<Class<?>> CLASS_CACHE = new BoundedCache<>(
+            Integer.getInteger("sourcebuddy.classCache.size", 0),
+            Boolean.getBoolean("sourcebuddy.classCache.soft"));
+
+    /**
+     * Get the process wide cache used by the static {@code compile(...)} methods.
+     * <p>
+     * When the cache is switched on, compiling the same source again with the same path options returns the class
+     * loaded the first time. The source is not compiled, and the class is not loaded again. It also means that the
+     * static fields of the class are shared between the callers.
+     * <p>
+     * The cache is switched off by default. To switch it on, call {@code Compiler.classCache().maxSize(n)} with some
+     * positive {@code n}.
+     *
+     * @return the cache object, which can be used to configure the cache and to query the counters
+     */
+    public static BoundedCache<Class<?>> classCache() {
+        return CLASS_CACHE;
+    }
+
+    static {
+        if (Boolean.getBoolean("sourcebuddy.prewarm")) {
+            prewarm();
+        }
+    }
+
+    /**
+     * Warm up the Java compiler in the background.
+     * <p>
+     * The first compilation in a JVM is several times slower than the later ones, because the classes of the
+     * compiler are loaded and interpreted first. This method starts a daemon thread, which compiles and loads a
+     * synthetic workload using records, enums, inner classes, lambdas and generics a few times. Calling this method
+     * early at the application startup makes the first real compilation faster.
+     * <p>
+     * The warm-up is started only once, the later calls return the same future. Setting the system property
+     * {@code sourcebuddy.prewarm} to {@code true} starts the warm-up when this class is initialized.
+     *
+     * @return the future completing with the duration of the warm-up when it is done
+     */
+    public static CompletableFuture<Duration> prewarm() {
+        return Prewarm.start(Prewarm.DEFAULT_ITERATIONS);
+    }
+
+    private static String staticCompileKey(final String binaryName, final String sourceCode) {
+        return new Fingerprint()
+                .add(binaryName)
+                .add(sourceCode)
+                .add(pathOptions)
+                .hex();
     }
 
     /**
@@ -492,6 +623,18 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
         return new Compiler();
     }
 
+    /**
+     * Create a compiler compiling in the session. Use {@link CompilerSession#java()} to get one.
+     *
+     * @param session the session the compilations run in
+     * @return the new compiler object
+     */
+    static Fluent.AddSource java(final CompilerSession session) {
+        final var compiler = new Compiler();
+        compiler.session = session;
+        return compiler;
+    }
+
     /**
      * Checks that the compiler object can compile Java code.
      * If the platform running the code is a JRE, the platform compiler will not be available.
@@ -522,7 +665,7 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
      */
     private Compiler() {
         compiler = ToolProvider.getSystemJavaCompiler();
-        manager = compiler == null ? new InMemoryJavaFileManager(null) : new InMemoryJavaFileManager(compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8));
+        manager = new InMemoryJavaFileManager(null);
     }
 
     /**
@@ -584,7 +727,7 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
         if (state != CompilationState.ADD_SOURCE) {
             throw new RuntimeException("Cannot add source after compilation");
         }
-        sources.add(new StringJavaSource(binaryName, sourceCode));
+        addSource(new StringJavaSource(binaryName, sourceCode));
         return this;
     }
 
@@ -599,6 +742,9 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
      * When an individual file name is given, the name of the class will be figured out from the source code. For the
      * details of the algorithm and the limits see {@link #from(String)}. If you cannot meet the limitations, you
      * should use the method {@link #from(String, Path) from(binaryName,Path)}.
+     * <p>
+     * All the sources of a directory are read and compiled. Use {@link #from(Path, String...) from(directory,
+     * binaryNames)} to compile only the sources needed by some entry classes.
      *
      * @param fileOrDir the path to the source directory or to a source file.
      * @return the fluent object for the further call chaining
@@ -606,13 +752,12 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
     public Fluent.SpecifyNestHiddenNamed from(final Path fileOrDir) throws IOException, ClassNotFoundException {
         if (new File(fileOrDir.toUri()).isDirectory()) {
             try (final var fileStream = Files.walk(fileOrDir)) {
-                sources.addAll(
-                        fileStream
+                fileStream
                                 .filter(file -> file.toString().endsWith(".java"))
                                 .map((Path file) -> new StringJavaSource(fileOrDir.relativize(file).toString()
                                         .replaceAll("[/\\\\]", ".")
                                         .replaceAll("\\.java$", "")
-                                        , getFileContent(file))).toList());
+                                        , getFileContent(file))).forEach(this::addSource);
             } catch (RuntimeException re) {
                 throwCause(re);
             }
@@ -620,7 +765,7 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
             try {
                 final var source = getFileContent(fileOrDir);
                 final var binaryName = getBinaryNameFromSource(source);
-                sources.add(new StringJavaSource(binaryName, source));
+                addSource(new StringJavaSource(binaryName, source));
             } catch (RuntimeException re) {
                 throwCause(re);
             }
@@ -639,7 +784,33 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
      */
     public Fluent.SpecifyNestHiddenNamed from(final String binaryName, final Path file) {
         final var source = getFileContent(file);
-        sources.add(new StringJavaSource(binaryName, source));
+        addSource(new StringJavaSource(binaryName, source));
+        return this;
+    }
+
+    /**
+     * Add the entry classes from a source directory, and let the compiler read the other sources from the directory
+     * only when they are needed.
+     * <p>
+     * The method {@link #from(Path)} reads all the {@code .java} files of a directory and compiles them all. This
+     * method reads only the source files of the given classes, and adds the directory to the source path, see
+     * {@link #sourcePath(Path)}. The compiler reads and compiles the sources of the other classes, which the entry
+     * classes reference directly or transitively. The sources of the directory, which are not referenced, are not
+     * read.
+     *
+     * @param directory   the source root directory, for example {@code src/main/java} in a Maven project
+     * @param binaryNames the binary names of the top level entry classes, for example {@code com.example.Main}. The
+     *                    source of the class {@code com.example.Main} is {@code com/example/Main.java} in the
+     *                    directory.
+     * @return the fluent object for the further call chaining. The nest and hidden settings apply to the last entry
+     * class.
+     */
+    @Override
+    public Fluent.SpecifyNestHiddenNamed from(final Path directory, final String... binaryNames) {
+        sourcePath(directory);
+        for (final var binaryName : binaryNames) {
+            from(binaryName, directory.resolve(binaryName.replace('.', '/') + ".java"));
+        }
         return this;
     }
 
@@ -794,6 +965,29 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
         return classPath(String.join(File.pathSeparator, ClasspathCollector.getEntries()));
     }
 
+    /**
+     * Add a directory to the source path of the compiler.
+     * <p>
+     * The compiler does not compile the sources of the source path up front. When a source references a class, which
+     * is not compiled from the given sources, the compiler looks for the source of the class in the source path
+     * directories, reads and compiles it the same way as the given sources, and the class is loaded with them. The
+     * standard Java compiler behaviour applies: when a class is also on the class path, the newer of the class file
+     * and the source file is used, unless the option {@code -Xprefer:source} is given.
+     * <p>
+     * The directories are passed to the compiler in the option {@code --source-path}. When the compilation is cached,
+     * the names, sizes and modification times of the source files in the directories are part of the fingerprint.
+     *
+     * @param directory the source root directory
+     * @return the fluent object for the further call chaining
+     */
+    @Override
+    public Fluent.CanIsolate sourcePath(final Path directory) {
+        if (!sourcePath.contains(directory)) {
+            sourcePath.add(directory);
+        }
+        return this;
+    }
+
     /**
      * Add the option {@code -cp} with the value {@code cp} to the compiler.
      *
@@ -899,8 +1093,155 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
         return this;
     }
 
+    /**
+     * Compile against the classes compiled by an earlier compilation, without saving them and putting them on the
+     * class path, or compiling them again.
+     * <p>
+     * The class files of the earlier compilation are presented to the Java compiler on the class path from the
+     * memory. The classes compiled by this compiler are loaded by a class loader whose parent is the class loader of
+     * the earlier compiler. The classes of the earlier compilation are loaded when this compiler loads its classes
+     * the first time, unless they were already loaded. This way many compilers can share the same base classes,
+     * compiled and loaded only once.
+     * <p>
+     * The class files are taken when this method is called. The earlier compiler should not be reset and used to
+     * compile again, because that may make the loaded classes different from the class files compiled against.
+     * The earlier compiler may itself compile against a layer, and then this compiler sees the classes of both.
+     *
+     * @param base the result of the earlier, successful compilation
+     * @return this
+     */
+    @Override
+    public Fluent.AddSource classPathLayer(final Fluent.Compiled base) {
+        if (!(base instanceof Compiler compiled)) {
+            throw new RuntimeException("The class path layer has to be compiled by " + Compiler.class.getName());
+        }
+        layer = compiled.toLayer();
+        manager.setLayer(layer);
+        return this;
+    }
+
+    /**
+     * Compile against the classes the class loader can load, instead of the class path.
+     * <p>
+     * Use this method when the class path does not describe the classes of the application, for example, when the
+     * application is packaged as a fat JAR with the libraries nested in it. The Java compiler gets the classes from an
+     * index of the classes of the class loader, which is built from the resources of the class loader the first time
+     * and cached. The class files are read through the class loader, so no JAR has to be extracted to the disk. The
+     * class path and module path options are not passed to the compiler, and the annotation processors are also
+     * loaded by the class loader.
+     * <p>
+     * The compiled classes are loaded by a class loader whose parent is the given class loader, unless the compiler
+     * uses a {@link #classPathLayer(Fluent.Compiled) class path layer}.
+     *
+     * @param loader the class loader, typically the class loader of the application or the context class loader
+     * @return this
+     */
+    @Override
+    public Fluent.AddSource classLoader(final ClassLoader loader) {
+        parentLoader = loader;
+        manager.setIndex(ClassLoaderIndex.of(loader));
+        return this;
+    }
+
+    /**
+     * Answer the class path lookups of the Java compiler from an index of the class path.
+     * <p>
+     * The Java compiler lists the classes of every imported and implicitly referenced package. The standard file
+     * manager scans the central directories of the JAR files on the class path for every listing, which is a
+     * significant fixed cost of each compilation when there are many JAR files on the class path. The index maps the
+     * packages to the class files. It is built once, reading the central directories from memory mapped files, and
+     * it is built again only when the class path fingerprint changes, see {@link ClasspathFingerprint#system()}.
+     * <p>
+     * The index contains only class files. The Java compiler will not find source files on the class path. The index
+     * is not used when the compilation is {@link #isolate() isolated}, or it uses a
+     * {@link #classLoader(ClassLoader) class loader}.
+     *
+     * @return this
+     */
+    @Override
+    public Fluent.AddSource indexClassPath() {
+        indexClassPath = true;
+        return this;
+    }
+
+    /**
+     * Answer the class path lookups of the Java compiler from an index of the class path, like
+     * {@link #indexClassPath()}, and persist the index in the directory.
+     * <p>
+     * The index is saved into a file named after the fingerprint of the class path entries. A new JVM with the same
+     * class path reads the index from the file, and it reads the central directories only of the JAR files, which
+     * changed since the file was written. This way the first compilation of a restarted application does not have to
+     * scan the class path when the JAR files did not change.
+     *
+     * @param directory the directory of the index files. It is created if it does not exist.
+     * @return this
+     */
+    @Override
+    public Fluent.AddSource indexClassPath(final Path directory) {
+        indexClassPath = true;
+        indexDirectory = directory;
+        return this;
+    }
+
+    /**
+     * Compile with only the class path entries the compilation needs.
+     * <p>
+     * The Java compiler gets the whole class path of the application, although a generated source usually uses the
+     * classes of only a few of the entries. The first compilation of sources with a given import footprint, the
+     * imports and the packages of the sources and the compiler options, uses the whole class path. Its class path
+     * lookups are answered by the {@link #indexClassPath() class path index}, which records the entries the compiler
+     * read class files from. The later compilations with the same footprint get only these entries on the class path.
+     * <p>
+     * If a compilation with the pruned class path fails, for example because a source refers to a class using its
+     * fully qualified name in an entry not needed before, then it is compiled again with the whole class path, and
+     * the entries it needed are added to the entries of the footprint. The annotation processors are discovered on
+     * the whole class path, unless the processor path is given in the options.
+     * <p>
+     * The class path is not pruned when the compilation is {@link #isolate() isolated}, it uses a
+     * {@link #classLoader(ClassLoader) class loader}, or the class path is given in the options.
+     *
+     * @return this
+     */
+    @Override
+    public Fluent.AddSource pruneClassPath() {
+        pruneClassPath = true;
+        return this;
+    }
+
+    /**
+     * @return the snapshot of the classes compiled by this compiler
+     */
+    private synchronized ClassLayer toLayer() {
+        if (state != CompilationState.SUCCESS) {
+            throw new RuntimeException("Only a successful compilation can be used as a class path layer.");
+        }
+        if (asLayer == null) {
+            asLayer = new ClassLayer(this, manager.getClassFileObjectsMap(), layer);
+        }
+        return asLayer;
+    }
+
+    /**
+     * Get the class loader of this compiler for the compilers using this compiler as a class path layer.
+     *
+     * @return the class loader, which loaded the classes of this compiler. The classes are loaded if they were not
+     * loaded yet.
+     * @throws ClassNotFoundException if the classes cannot be loaded
+     */
+    ClassLoader layerClassLoader() throws ClassNotFoundException {
+        if (classLoader == null) {
+            load();
+        }
+        return classLoader;
+    }
+
     /**
      * Add the names of the annotated classes to the compiler.
+     * <p>
+     * The source files and the resources the annotation processors create are kept in memory. The generated sources
+     * are compiled with the other sources, and the resources created in the class output can be read from the class
+     * loader of the compiled classes. A compilation, which created resources, is not stored in the
+     * {@link #cache(CompiledClassStore) cache}, because the cache stores only the class files.
      *
      * @param classes the classes which are annotated
      * @return this
@@ -911,6 +1252,201 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
         return this;
     }
 
+    /**
+     * Use a store, for example a persistent {@link DiskCache}, for the compilation.
+     * <p>
+     * When the same sources are compiled with the same options and the same JDK version, the byte codes are read
+     * from the store and the Java compiler is not invoked. Note that in this case the annotation processors are not
+     * executed either. After a successful compilation the byte codes are put into the store.
+     *
+     * @param cache the store to use, or {@code null} to switch off caching
+     * @return this
+     */
+    @Override
+    public Fluent.CanIsolate cache(final CompiledClassStore cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * Coalesce the compilation with the identical compilations running concurrently in other threads.
+     * <p>
+     * When several threads compile the same sources with the same options at the same time, only one of them invokes
+     * the Java compiler. The others wait for the result and share it, be it the byte codes or the
+     * {@link CompileException}.
+     *
+     * @return this
+     */
+    @Override
+    public Fluent.CanIsolate coalesce() {
+        coalesce = true;
+        return this;
+    }
+
+    /**
+     * Set the way the sources are included in the fingerprint of the compilation. The fingerprint is the key used by
+     * the {@link #cache(CompiledClassStore) cache} and by the {@link #coalesce() coalescing}. The default is
+     * {@link FingerprintMode#RAW}.
+     *
+     * @param mode the fingerprint mode
+     * @return this
+     */
+    @Override
+    public Fluent.CanIsolate fingerprint(final FingerprintMode mode) {
+        fingerprintMode = Objects.requireNonNull(mode);
+        return this;
+    }
+
+    /**
+     * Record the compilation requests in the manifest. The manifest can be saved and used on the next start of the
+     * application to warm up a cache, see {@link WarmUp}.
+     * <p>
+     * Compilations containing classes added as byte code, compiling against a
+     * {@link #classPathLayer(Fluent.Compiled) class path layer} or the classes of a
+     * {@link #classLoader(ClassLoader) class loader} are not recorded, because they cannot be repeated from the
+     * manifest.
+     *
+     * @param manifest the manifest to record the compilations in, or {@code null} to switch off recording
+     * @return this
+     */
+    @Override
+    public Fluent.CanIsolate manifest(final HotManifest manifest) {
+        this.manifest = manifest;
+        return this;
+    }
+
+    /**
+     * Compile only the sources, which changed since the last compilation of this compiler.
+     * <p>
+     * This is useful when the compiler is {@link #reset() reset} and the same, large set of sources is compiled again
+     * after some of them were modified. Adding a source with the same binary name as an already added source
+     * replaces the old source. The unchanged sources are not parsed and analyzed again. Their class files compiled
+     * the last time are presented to the Java compiler on the class path.
+     * <p>
+     * When the API of a changed source changes (a non-private member, or the value of a constant, for example), then
+     * all the sources are compiled, because the unchanged sources may depend on the changed API. A source removed
+     * from the compiler also results in compiling all the sources.
+     * <p>
+     * The annotation processors run only for the compiled sources. The compiled classes are loaded by a new class
+     * loader, because the classes compiled again cannot be defined by the class loader, which already loaded them.
+     * The sources compiled and the reasons are reported by {@link #recompilation()}.
+     *
+     * @return this
+     */
+    @Override
+    public Fluent.CanIsolate skipUnchanged() {
+        tracker = new UnitTracker(false);
+        return this;
+    }
+
+    /**
+     * Compile only the sources, which changed since the last compilation of this compiler, and the sources depending
+     * on them.
+     * <p>
+     * This mode works the same way as {@link #skipUnchanged()}, but when the API of a changed source changes, only
+     * the sources referencing the classes of the changed source are compiled again, and not all the sources. The
+     * references are read from the constant pools of the class files compiled the last time. When the value of a
+     * constant changes all the sources are compiled, because the classes using a constant contain its value and not
+     * a reference to the class defining it.
+     * <p>
+     * The sources compiled and the reasons are reported by {@link #recompilation()}.
+     *
+     * @return this
+     */
+    @Override
+    public Fluent.CanIsolate incremental() {
+        tracker = new UnitTracker(true);
+        return this;
+    }
+
+    /**
+     * Check only the declarations and the signatures of the sources, without compiling the method bodies.
+     * <p>
+     * The compiler compiles the header sources, the sources with the bodies of the methods, constructors and
+     * initializer blocks replaced by a statement throwing an exception. It checks the types, the signatures, the
+     * inheritance, the overriding and the field initializers, but it does not attribute the code in the bodies. The
+     * compilation stops after the attribution, there is no flow analysis and no class file is created. The
+     * compilation fails if the sources do not compile at the signature level.
+     * <p>
+     * The classes cannot be loaded after a signatures only compilation. The sources are compiled all, the changed
+     * sources are not tracked, and the class path is not pruned in this mode.
+     *
+     * @return this
+     */
+    @Override
+    public Fluent.CanIsolate signaturesOnly() {
+        signaturesOnly = true;
+        signatureStubs = false;
+        return this;
+    }
+
+    /**
+     * Compile the header sources into stub class files, see {@link #signaturesOnly()}.
+     * <p>
+     * The stub classes have the same members as the classes compiled from the sources, but the methods and the
+     * constructors throw a {@link NullPointerException}. The stubs are in this compiler, like any compiled class,
+     * so the later compilations can compile against them using {@link #classPathLayer(Fluent.Compiled)}.
+     *
+     * @return this
+     */
+    @Override
+    public Fluent.CanIsolate signatureStubs() {
+        signatureStubs = true;
+        signaturesOnly = false;
+        return this;
+    }
+
+    /**
+     * @return the report of the sources compiled by the last compilation and the reasons, or {@code null} if the
+     * compiler is not in {@link #skipUnchanged()} or {@link #incremental()} mode, or the classes were loaded from the
+     * cache
+     */
+    @Override
+    public Recompilation recompilation() {
+        return tracker == null ? null : tracker.report();
+    }
+
+    /**
+     * Add the source to the list of the sources. If the compiler compiles only the changed sources, then the source
+     * replaces the source with the same binary name.
+     *
+     * @param source the new source
+     */
+    private void addSource(final StringJavaSource source) {
+        if (tracker != null) {
+            sources.removeIf(s -> s.binaryName.equals(source.binaryName));
+        }
+        sources.add(source);
+    }
+
+    /**
+     * Check the syntax of the sources without compiling them.
+     * <p>
+     * Only the parser of the Java compiler runs, the names are not resolved, the types are not checked, and no class
+     * file is created. It is a fast way to report the syntax errors of a source, for example while the source is
+     * edited. The compiler options are used, so that the parser knows the language level, but the class path is not,
+     * because the parser does not need it. The file manager is borrowed from the
+     * {@link FileManagerPool#shared() shared pool}, and when the compiler is in a {@link CompilerSession session},
+     * the parser runs in the reused javac context.
+     * <p>
+     * The state of the compiler does not change, the sources can be compiled after the validation.
+     *
+     * @return the problems reported by the parser
+     */
+    @Override
+    public Validation validate() {
+        if (compiler == null) {
+            throw new RuntimeException("There is no Java compiler in the environment.");
+        }
+        final var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        if (session == null) {
+            parse(compiler, manager, diagnostics, compilerOptions, sources);
+        } else {
+            session.parse(compiler, manager, diagnostics, compilerOptions, sources);
+        }
+        return new Validation(diagnostics.getDiagnostics());
+    }
+
     /**
      * Tell the compiler <b>not</b> to add the classpath and the module path to the compiler options.
      *
@@ -930,24 +1466,417 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
      */
     @Override
     public Compiler compile(String... options) throws CompileException {
-
-        final var sw = new StringWriter();
+        asLayer = null;
         final var finalCompilerOptions = new ArrayList<>(compilerOptions);
-        if (!isolated) {
+        if (!isolated && parentLoader == null) {
             finalCompilerOptions.addAll(pathOptions);
+            if (indexClassPath) {
+                manager.setIndex(PackageIndex.system(indexDirectory));
+            }
         }
-        final var task = compiler.getTask(sw, manager, null, finalCompilerOptions, classesAnnotated, sources);
-        task.addModules(modules);
-        final var compileOK = task.call();
-        if (compileOK) {
-            state = CompilationState.SUCCESS;
-        } else {
+        if (!sourcePath.isEmpty()) {
+            finalCompilerOptions.add("--source-path");
+            finalCompilerOptions.add(sourcePath.stream().map(Path::toString).collect(Collectors.joining(File.pathSeparator)));
+        }
+        final var key = cache == null && !coalesce && manifest == null ? null : fingerprint(finalCompilerOptions);
+        if (manifest != null) {
+            record(key);
+        }
+        if (cache != null) {
+            final var cached = cache.load(key);
+            if (cached.isPresent()) {
+                if (tracker != null) {
+                    // the class files from the cache do not know their sources
+                    tracker.clear();
+                }
+                addClassFiles(cached.get());
+                state = CompilationState.SUCCESS;
+                return this;
+            }
+        }
+        try {
+            if (coalesce) {
+                final var result = SingleFlight.compile(key, () -> javac(finalCompilerOptions, key), this::onlyClassFiles);
+                if (result.shared()) {
+                    addClassFiles(result.classes());
+                }
+            } else {
+                javac(finalCompilerOptions, key);
+            }
+        } catch (CompileException e) {
             state = CompilationState.FAILURE;
-            throw new CompileException(sw.toString());
+            throw e;
         }
+        state = CompilationState.SUCCESS;
         return this;
     }
 
+    /**
+     * Invoke the Java compiler.
+     *
+     * @param finalCompilerOptions the options passed to the compiler including the path options
+     * @param key                  the fingerprint of the compilation, or {@code null} if it was not calculated
+     * @return the map of the binary names to the byte codes created by this compilation
+     * @throws CompileException if there was an error during the compilation
+     */
+    private Map<String, byte[]> javac(final List<String> finalCompilerOptions, final String key) throws CompileException {
+        final Map<String, byte[]> compiled;
+        if (signaturesOnly || signatureStubs) {
+            compiled = javacHeaders(finalCompilerOptions);
+        } else if (pruneClassPath && ClassPathPruning.applies(compilerOptions, finalCompilerOptions)) {
+            compiled = javacPruned(finalCompilerOptions);
+        } else {
+            compiled = javacSources(finalCompilerOptions);
+        }
+        if (cache != null && onlyClassFiles()) {
+            // the cache stores only the class files, the resources would be missing when loaded from the cache
+            cache.store(key, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * @return {@code true} if the compilation created only class files, and no resources. Only such a result can be
+     * cached or shared with the coalesced compilations.
+     */
+    private boolean onlyClassFiles() {
+        return manager.getResources().values().stream().noneMatch(GeneratedFile::isWritten);
+    }
+
+    /**
+     * Invoke the Java compiler for the sources.
+     *
+     * @param finalCompilerOptions the options passed to the compiler including the path options
+     * @return the map of the binary names to the byte codes created by this compilation
+     * @throws CompileException if there was an error during the compilation
+     */
+    private Map<String, byte[]> javacSources(final List<String> finalCompilerOptions) throws CompileException {
+        return tracker == null ? javac(finalCompilerOptions, sources) : javacChanged(finalCompilerOptions);
+    }
+
+    /**
+     * Invoke the Java compiler for the header sources, see {@link #signaturesOnly()} and {@link #signatureStubs()}.
+     *
+     * @param finalCompilerOptions the options passed to the compiler including the path options
+     * @return the map of the binary names to the byte codes of the stubs, empty if the stubs are not created
+     * @throws CompileException if the sources do not compile at the signature level
+     */
+    private Map<String, byte[]> javacHeaders(final List<String> finalCompilerOptions) throws CompileException {
+        final var options = new ArrayList<>(finalCompilerOptions);
+        if (signaturesOnly) {
+            // javac skips the flow analysis and the code generation
+            options.add("-XDshould-stop.ifNoError=ATTR");
+        }
+        return javac(options, Headers.strip(compiler, compilerOptions, sources));
+    }
+
+    /**
+     * Invoke the Java compiler with the class path entries learned for the import footprint of the sources, see
+     * {@link #pruneClassPath()}. When nothing was learned yet, or the compilation fails, the sources are compiled with
+     * the whole class path, and the entries the compiler read are learned.
+     *
+     * @param finalCompilerOptions the options passed to the compiler including the path options
+     * @return the map of the binary names to the byte codes created by this compilation
+     * @throws CompileException if there was an error during the compilation with the whole class path
+     */
+    private Map<String, byte[]> javacPruned(final List<String> finalCompilerOptions) throws CompileException {
+        final var footprint = ClassPathPruning.footprint(sources, finalCompilerOptions);
+        final var entries = ClassPathPruning.learned(footprint);
+        final var index = manager.getIndex();
+        if (entries != null) {
+            manager.setIndex(entries.isEmpty() ? ClassPathPruning.EMPTY : null);
+            try {
+                return javacSources(ClassPathPruning.prune(compilerOptions, finalCompilerOptions, entries));
+            } catch (CompileException e) {
+                // compile again with the whole class path, a real error in the sources is reported from there
+            } finally {
+                manager.setIndex(index);
+            }
+        }
+        final var recorder = new ClassPathPruning.Recorder(PackageIndex.system(indexDirectory));
+        manager.setIndex(recorder);
+        try {
+            final var compiled = javacSources(finalCompilerOptions);
+            ClassPathPruning.learn(footprint, recorder.used());
+            return compiled;
+        } finally {
+            manager.setIndex(index);
+        }
+    }
+
+    /**
+     * Invoke the Java compiler for the sources, which changed since the last compilation, see
+     * {@link #skipUnchanged()} and {@link #incremental()}.
+     *
+     * @param finalCompilerOptions the options passed to the compiler including the path options
+     * @return the map of the binary names to the byte codes of all the sources, including the unchanged ones
+     * @throws CompileException if there was an error during the compilation
+     */
+    private Map<String, byte[]> javacChanged(final List<String> finalCompilerOptions) throws CompileException {
+        // the tracker removes the class files of the selected sources, they are restored when the compilation fails
+        final var classFiles = new HashMap<>(manager.getClassFileObjectsMap());
+        final var origins = new HashMap<>(manager.getOrigins());
+        var selected = tracker.select(sources, manager);
+        Map<String, byte[]> compiled;
+        try {
+            compiled = selected.isEmpty() ? new HashMap<>() : javac(finalCompilerOptions, selected);
+            for (var wider = tracker.widen(selected, sources, manager); wider != selected; wider = tracker.widen(selected, sources, manager)) {
+                selected = wider;
+                compiled = javac(finalCompilerOptions, selected);
+            }
+        } catch (CompileException e) {
+            manager.getClassFileObjectsMap().clear();
+            manager.getClassFileObjectsMap().putAll(classFiles);
+            manager.getOrigins().clear();
+            manager.getOrigins().putAll(origins);
+            manager.getClassPathFiles().clear();
+            throw e;
+        }
+        for (final var e : manager.getClassPathFiles().entrySet()) {
+            compiled.put(e.getKey(), e.getValue().getByteArray());
+        }
+        tracker.update(selected, sources, manager);
+        if (classLoader != null) {
+            // the classes compiled again cannot be defined in the same class loader
+            classLoader = null;
+            for (final var source : sources) {
+                source.loadedClass = null;
+                source.exception = null;
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Invoke the Java compiler for the given sources.
+     *
+     * @param finalCompilerOptions the options passed to the compiler including the path options
+     * @param units                the sources to compile
+     * @return the map of the binary names to the byte codes created by this compilation
+     * @throws CompileException if there was an error during the compilation
+     */
+    private Map<String, byte[]> javac(final List<String> finalCompilerOptions, final List<StringJavaSource> units) throws CompileException {
+        final var sw = new StringWriter();
+        final var before = new HashMap<>(manager.getClassFileObjectsMap());
+        final var success = session == null
+                ? call(compiler, sw, manager, finalCompilerOptions, classesAnnotated, units, modules)
+                : session.call(compiler, sw, manager, finalCompilerOptions, classesAnnotated, units, modules);
+        if (!success) {
+            manager.getClassPathFiles().clear();
+            throw new CompileException(sw.toString());
+        }
+        return classesCompiledSince(before);
+    }
+
+    /**
+     * Run the Java compiler with a file manager borrowed from the {@link FileManagerPool#shared() shared pool}.
+     *
+     * @param compiler   the Java compiler
+     * @param out        the writer to send the compiler messages to
+     * @param state      the file manager of the compiler holding the class files
+     * @param options    the compiler options
+     * @param classes    the annotated classes
+     * @param sources    the sources to compile
+     * @param modules    the root modules
+     * @return {@code true} if the compilation was successful
+     */
+    static boolean call(final JavaCompiler compiler,
+                        final Writer out,
+                        final InMemoryJavaFileManager state,
+                        final List<String> options,
+                        final List<String> classes,
+                        final List<? extends JavaFileObject> sources,
+                        final List<String> modules) {
+        final var pool = FileManagerPool.shared();
+        final var fileManager = pool.borrow(compiler, options);
+        try {
+            final var task = compiler.getTask(out, new InMemoryJavaFileManager(fileManager, state), null, options, classes, sources);
+            task.addModules(modules);
+            return task.call();
+        } finally {
+            pool.release(options, fileManager);
+        }
+    }
+
+    /**
+     * Run the parser of the Java compiler with a file manager borrowed from the
+     * {@link FileManagerPool#shared() shared pool}.
+     *
+     * @param compiler    the Java compiler
+     * @param state       the file manager of the compiler
+     * @param diagnostics the listener receiving the problems
+     * @param options     the compiler options
+     * @param sources     the sources to parse
+     */
+    static void parse(final JavaCompiler compiler,
+                      final InMemoryJavaFileManager state,
+                      final DiagnosticListener<JavaFileObject> diagnostics,
+                      final List<String> options,
+                      final List<? extends JavaFileObject> sources) {
+        final var pool = FileManagerPool.shared();
+        final var fileManager = pool.borrow(compiler, options);
+        try {
+            parse(compiler.getTask(Writer.nullWriter(), new InMemoryJavaFileManager(fileManager, state), diagnostics, options, null, sources));
+        } finally {
+            pool.release(options, fileManager);
+        }
+    }
+
+    /**
+     * Parse the sources of the task.
+     *
+     * @param task the compilation task created by the Java compiler
+     * @return {@code true}
+     */
+    static boolean parse(final JavaCompiler.CompilationTask task) {
+        if (!(task instanceof JavacTask javacTask)) {
+            throw new RuntimeException("The validation needs the javac compiler, the compiler in the environment is " + task.getClass().getName());
+        }
+        try {
+            javacTask.parse();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+
+    /**
+     * Record the compilation in the manifest.
+     *
+     * @param key the fingerprint of the compilation
+     */
+    private void record(final String key) {
+        if (layer != null || parentLoader != null) {
+            return;
+        }
+        final var codes = new LinkedHashMap<String, String>();
+        for (final var source : sources) {
+            if (source.code.isEmpty()) {
+                return;
+            }
+            codes.put(source.binaryName, source.code);
+        }
+        manifest.record(new HotManifest.Entry(key, codes, List.copyOf(compilerOptions), isolated,
+                List.copyOf(classesAnnotated), List.copyOf(modules), fingerprintMode,
+                sourcePath.stream().map(Path::toString).toList(), signaturesOnly, signatureStubs));
+    }
+
+    /**
+     * Calculate the fingerprint of the compilation from the sources and the options. When the compilation is not
+     * isolated, the digest of the class path and module path entries is also included, see
+     * {@link ClasspathFingerprint}.
+     *
+     * @param finalCompilerOptions the options passed to the compiler including the path options
+     * @return the fingerprint as a hexadecimal string
+     */
+    private String fingerprint(final List<String> finalCompilerOptions) {
+        final var fingerprint = new Fingerprint()
+                .addSources(sources, fingerprintMode)
+                .add(finalCompilerOptions)
+                .add(classesAnnotated)
+                .add(modules);
+        if (!isolated) {
+            fingerprint.add(ClasspathFingerprint.system().digest());
+        }
+        final var entries = pathEntries(compilerOptions);
+        if (!entries.isEmpty()) {
+            fingerprint.add(ClasspathFingerprint.of(entries).digest());
+        }
+        if (parentLoader != null) {
+            fingerprint.add(ClassLoaderIndex.of(parentLoader).digest());
+        }
+        if (layer != null) {
+            fingerprint.add(layer.digest());
+        }
+        if (signaturesOnly || signatureStubs) {
+            fingerprint.add(signaturesOnly ? "signatures only" : "signature stubs");
+        }
+        for (final var directory : sourcePath) {
+            fingerprint.add(sourcePathListing(directory));
+        }
+        return fingerprint.hex();
+    }
+
+    /**
+     * The options of the compiler, which are followed by a path of class files.
+     */
+    private static final Set<String> PATH_OPTIONS = Set.of("-cp", "-classpath", "--class-path", "-p", "--module-path",
+            "--upgrade-module-path", "-processorpath", "--processor-path", "--processor-module-path");
+
+    /**
+     * @param options the options given by the caller, not including the path options of the JVM
+     * @return the entries of the class path, module path and processor path options
+     */
+    private static List<String> pathEntries(final List<String> options) {
+        final var entries = new ArrayList<String>();
+        for (int i = 0; i < options.size() - 1; i++) {
+            if (PATH_OPTIONS.contains(options.get(i))) {
+                entries.addAll(List.of(options.get(++i).split(File.pathSeparator)));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * List the source files of a source path directory for the fingerprint. The files are not read, a source is
+     * considered changed when its size or modification time changed.
+     *
+     * @param directory the source path directory
+     * @return the relative paths, sizes and modification times of the source files in a stable order
+     */
+    private static List<String> sourcePathListing(final Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (final var files = Files.walk(directory)) {
+            return files.filter(file -> file.toString().endsWith(".java"))
+                    .map(file -> {
+                        final var f = file.toFile();
+                        return directory.relativize(file) + ":" + f.length() + ":" + f.lastModified();
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Get the byte codes, which were created by the compiler since the snapshot {@code before} was taken.
+     * The compiler may overwrite the byte code of a class compiled in a previous phase, therefore the file objects
+     * are compared by identity and not by the name.
+     *
+     * @param before the snapshot of the class file objects map before the compilation
+     * @return the map of the binary names to the byte codes
+     */
+    private Map<String, byte[]> classesCompiledSince(final Map<String, MemoryFileObject> before) {
+        final var compiled = new LinkedHashMap<String, byte[]>();
+        for (final var e : manager.getClassFileObjectsMap().entrySet()) {
+            if (before.get(e.getKey()) != e.getValue()) {
+                compiled.put(e.getKey(), e.getValue().getByteArray());
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Put the byte codes into the file manager as if they were created by the compiler.
+     *
+     * @param classes the map of the binary names to the byte codes
+     */
+    private void addClassFiles(final Map<String, byte[]> classes) {
+        for (final var e : classes.entrySet()) {
+            final var mfo = new MemoryFileObject(e.getKey());
+            try (final var out = mfo.openOutputStream()) {
+                out.write(e.getValue());
+            } catch (IOException ioe) {
+                // writing a ByteArrayOutputStream does not throw
+                throw new RuntimeException(ioe);
+            }
+            manager.getClassFileObjectsMap().put(e.getKey(), mfo);
+        }
+    }
+
 
     /**
      * Add byte code to the compiled set of codes.
@@ -1065,12 +1994,23 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
      * @throws ClassNotFoundException if some classes cannot be loaded for whatever reason
      */
     public Loaded load(LoaderOption... options) throws ClassNotFoundException {
+        if (signaturesOnly) {
+            throw new RuntimeException("The signatures only compilation does not create classes to load.");
+        }
         if (classLoader == null) {
-            classLoader = new ByteClassLoader(this.getClass().getClassLoader(), classesByteArraysMap(), sources, options);
-        } else {
-            if (classLoader instanceof ByteClassLoader) {
-                ((ByteClassLoader) classLoader).addByteCodes(classesByteArraysMap(), sources);
+            final ClassLoader parent;
+            if (layer != null) {
+                parent = layer.classLoader();
+            } else if (parentLoader != null) {
+                parent = parentLoader;
+            } else {
+                parent = this.getClass().getClassLoader();
             }
+            classLoader = new ByteClassLoader(parent, options);
+        }
+        if (classLoader instanceof ByteClassLoader) {
+            ((ByteClassLoader) classLoader).addClassFiles(manager.getClassFileObjectsMap(), sources);
+            ((ByteClassLoader) classLoader).addResources(manager.getResources());
         }
         final var loaded = new Loaded();
         if (!Set.of(options).contains(LoaderOption.SLOPPY)) {
@@ -1109,6 +2049,51 @@ public class Compiler implements Fluent.AddSource, Fluent.CanIsolate, Fluent.Can
         });
     }
 
+    /**
+     * Save the compiled session into a single bundle file.
+     * <p>
+     * The bundle contains the byte codes of all the classes, the binary names of the sources and the way they are
+     * to be loaded (hidden, nest, class options). The lookup objects are not saved. A bundle can be loaded later,
+     * even in a different JVM, using the method {@link #bundle(Path)} without compiling the sources.
+     * <p>
+     * Use this method instead of {@link #saveTo(Path)} when the classes are to be loaded again by this library. It
+     * writes one file instead of one file per class.
+     *
+     * @param file the bundle file. It is overwritten if it already exists.
+     * @throws IOException if the file cannot be written
+     */
+    public void saveBundle(final Path file) throws IOException {
+        if (state != CompilationState.SUCCESS) {
+            throw new RuntimeException("There is no successfully compiled code to save.");
+        }
+        Bundle.write(file, manager.getClassFileObjectsMap(), sources);
+    }
+
+    /**
+     * Add the classes and sources from a bundle file saved by {@link #saveBundle(Path)}.
+     * <p>
+     * The file is mapped into the memory, and only the index is read. The byte code of a class is read from the
+     * file when the class is loaded, and it is not copied to the heap when it is not needed.
+     * <p>
+     * The sources are added without source code, the same way as {@link #byteCode(byte[])} adds them. Classes
+     * saved as hidden or nest without a lookup object are loaded using a lookup created for them the same way as
+     * when they were compiled.
+     *
+     * @param file the bundle file
+     * @return the fluent object for the further call chaining
+     * @throws IOException if the file cannot be read or it is not a bundle file
+     */
+    public Fluent.Compiled bundle(final Path file) throws IOException {
+        if (state == CompilationState.FAILURE) {
+            throw new RuntimeException("The compilation was not successful, you cannot add a bundle.");
+        }
+        final var content = Bundle.read(file);
+        state = CompilationState.SUCCESS;
+        manager.getClassFileObjectsMap().putAll(content.classes());
+        sources.addAll(content.sources());
+        return this;
+    }
+
     /**
      * Get the binary name of the class from the compiled byte code array.
      *
@@ -0,0 +1,259 @@
+package com.javax0.sourcebuddy;
+
+import javax.tools.DiagnosticListener;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * A long living compilation session, which keeps the javac context warm between the compilations.
+ * <p>
+ * A normal compilation creates a new javac context. It has to read the symbols of {@code java.base} and of the
+ * imported classes from the JDK image and the class path again for every compilation. The compilers created by
+ * {@link #java()} compile in a reusable context. The symbols of the JDK and of the class path are kept, while the
+ * classes compiled by a run are removed from the context after the run, so one compilation does not see the classes
+ * of another one.
+ * <p>
+ * The reusable context is implemented by the class {@code com.sun.tools.javac.api.JavacTaskPool} of the
+ * {@code jdk.compiler} module. The package of this class is not exported, therefore it can only be used when the JVM
+ * is started with the option
+ * <pre>
+ *     --add-exports jdk.compiler/com.sun.tools.javac.api=com.javax0.sourcebuddy
+ * </pre>
+ * or with {@code ALL-UNNAMED} as the target when the library is on the class path. When the package is not
+ * accessible, the session still works, but the compilations create a new context, the same way as without a
+ * session. Use {@link #reusesContext()} to check which is the case.
+ * <p>
+ * A javac context keeps the file manager it was created with. The session keeps a standard file manager for each
+ * list of compiler options, and the compilations in the session run one at a time.
+ * <p>
+ * The symbols a context read from the class path are kept, and the contexts are selected by the compiler options.
+ * A compilation, which presents its own classes on the class path, like the classes of a
+ * {@link Fluent.AddSource#classPathLayer(Fluent.Compiled) layer}, the classes of a
+ * {@link Fluent.AddSource#classLoader(ClassLoader) class loader} or the unchanged classes of an incremental
+ * compilation, creates a new context. Otherwise, a later compilation with the same options could see these classes.
+ * <p>
+ * The context grows as more and more classes are read into it. To limit the memory use, the session drops the
+ * contexts and the file managers and starts with new ones after the configured number of runs. Closing the session
+ * closes the file managers.
+ */
+public final class CompilerSession implements AutoCloseable {
+    /**
+     * The default number of runs after which the contexts are recycled.
+     */
+    public static final int DEFAULT_RECYCLE_AFTER = 100;
+
+    private static final Class<?> POOL_CLASS;
+    private static final Class<?> WORKER_CLASS;
+    private static final Method GET_TASK;
+    /**
+     * The number of contexts kept, for different compiler options.
+     */
+    private static final int POOL_SIZE = 4;
+
+    static {
+        Class<?> poolClass = null;
+        Class<?> workerClass = null;
+        Method getTask = null;
+        try {
+            poolClass = Class.forName("com.sun.tools.javac.api.JavacTaskPool");
+            workerClass = Class.forName("com.sun.tools.javac.api.JavacTaskPool$Worker");
+            getTask = poolClass.getMethod("getTask", Writer.class, JavaFileManager.class, DiagnosticListener.class,
+                    Iterable.class, Iterable.class, Iterable.class, workerClass);
+            // fails when the package is not exported
+            poolClass.getConstructor(int.class).newInstance(1);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            poolClass = null;
+        }
+        POOL_CLASS = poolClass;
+        WORKER_CLASS = workerClass;
+        GET_TASK = getTask;
+    }
+
+    private final int recycleAfter;
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong recycles = new AtomicLong();
+    private Object pool;
+    private final Map<List<String>, FileManager> fileManagers = new HashMap<>();
+
+    /**
+     * A file manager kept by the javac context, and the standard file manager it forwards to.
+     */
+    private record FileManager(InMemoryJavaFileManager inMemory, StandardJavaFileManager standard) {
+    }
+
+    /**
+     * Create a session recycling the contexts after {@link #DEFAULT_RECYCLE_AFTER} runs.
+     */
+    public CompilerSession() {
+        this(DEFAULT_RECYCLE_AFTER);
+    }
+
+    /**
+     * Create a session.
+     *
+     * @param recycleAfter the number of runs after which the contexts are dropped, and new ones are created
+     */
+    public CompilerSession(final int recycleAfter) {
+        if (recycleAfter <= 0) {
+            throw new IllegalArgumentException("The number of runs before recycling must be positive.");
+        }
+        this.recycleAfter = recycleAfter;
+        this.pool = newPool();
+    }
+
+    /**
+     * @return a new compiler compiling in this session
+     */
+    public Fluent.AddSource java() {
+        return Compiler.java(this);
+    }
+
+    /**
+     * @return {@code true} if the compilations reuse the javac context, {@code false} if the javac internal classes
+     * are not accessible, and the compilations create new contexts
+     */
+    public boolean reusesContext() {
+        return POOL_CLASS != null;
+    }
+
+    /**
+     * @return the number of compilations run in this session
+     */
+    public long runs() {
+        return runs.get();
+    }
+
+    /**
+     * @return the number of times the contexts were dropped and new ones were created
+     */
+    public long recycles() {
+        return recycles.get();
+    }
+
+    /**
+     * Run a compilation in the session.
+     *
+     * @return {@code true} if the compilation was successful
+     */
+    synchronized boolean call(final JavaCompiler compiler,
+                              final Writer out,
+                              final InMemoryJavaFileManager state,
+                              final List<String> options,
+                              final List<String> classes,
+                              final List<? extends JavaFileObject> sources,
+                              final List<String> modules) {
+        if (runs.incrementAndGet() % recycleAfter == 0) {
+            recycle();
+        }
+        if (pool == null || state.hasOwnClassPath()) {
+            return Compiler.call(compiler, out, state, options, classes, sources, modules);
+        }
+        return run(compiler, out, state, null, options, classes, sources, task -> {
+            task.addModules(modules);
+            return task.call();
+        });
+    }
+
+    /**
+     * Run the parser in the session. The parsing does not count as a run.
+     */
+    synchronized void parse(final JavaCompiler compiler,
+                            final InMemoryJavaFileManager state,
+                            final DiagnosticListener<JavaFileObject> diagnostics,
+                            final List<String> options,
+                            final List<? extends JavaFileObject> sources) {
+        if (pool == null) {
+            Compiler.parse(compiler, state, diagnostics, options, sources);
+        } else {
+            run(compiler, Writer.nullWriter(), state, diagnostics, options, List.of(), sources, Compiler::parse);
+        }
+    }
+
+    /**
+     * Run an action with a task created in the reused context.
+     *
+     * @return the result of the action
+     */
+    private boolean run(final JavaCompiler compiler,
+                        final Writer out,
+                        final InMemoryJavaFileManager state,
+                        final DiagnosticListener<JavaFileObject> diagnostics,
+                        final List<String> options,
+                        final List<String> classes,
+                        final List<? extends JavaFileObject> sources,
+                        final Predicate<JavaCompiler.CompilationTask> action) {
+        final var fileManager = fileManagers.computeIfAbsent(List.copyOf(options), k -> {
+            final var standard = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+            return new FileManager(new InMemoryJavaFileManager(standard, null), standard);
+        });
+        fileManager.inMemory().share(state);
+        final var worker = Proxy.newProxyInstance(WORKER_CLASS.getClassLoader(), new Class<?>[]{WORKER_CLASS},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "withTask" -> action.test((JavaCompiler.CompilationTask) args[0]);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> "CompilerSession worker";
+                });
+        try {
+            return (Boolean) GET_TASK.invoke(pool, out, fileManager.inMemory(), diagnostics, options, classes, sources, worker);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        } finally {
+            fileManager.inMemory().share(null);
+        }
+    }
+
+    private void recycle() {
+        recycles.incrementAndGet();
+        pool = newPool();
+        close();
+    }
+
+    /**
+     * Close the file managers kept by the session. The session can still be used after closing, it will create new
+     * file managers.
+     */
+    @Override
+    public synchronized void close() {
+        for (final var fileManager : fileManagers.values()) {
+            try {
+                fileManager.standard().close();
+            } catch (IOException ignore) {
+                // the file manager is not used any more, there is nothing to do with the error
+            }
+        }
+        fileManagers.clear();
+    }
+
+    private static Object newPool() {
+        if (POOL_CLASS == null) {
+            return null;
+        }
+        try {
+            return POOL_CLASS.getConstructor(int.class).newInstance(POOL_SIZE);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.javax0.sourcebuddy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A persistent, content addressed cache of the compiled byte codes.
+ * <p>
+ * The cache stores the byte codes of a compilation in a single file in the cache directory. The name of the file is
+ * the fingerprint of the compilation, calculated from the sources, the final compiler options (including the class
+ * path and module path) and the version of the JDK. When a compiler configured to use the cache (see
+ * {@link Compiler#cache(CompiledClassStore)}) finds the fingerprint in the cache, it fills the compiled classes from
+ * the cache file and does not invoke the Java compiler.
+ * <p>
+ * This is the local file system implementation of the {@link CompiledClassStore} interface. When the directory is on
+ * a file system shared by several hosts, it can also be used as a shared tier.
+ * <p>
+ * The files are written to a temporary file first and then moved atomically to their final name, so that several
+ * JVMs on the same host can share the same directory. A reader will either see a complete file or no file.
+ * <p>
+ * The size of the cache is bounded. When the total size of the cache files exceeds the limit, the least recently
+ * used files are deleted. Reading a file from the cache updates its modification time.
+ * <p>
+ * Errors reading or writing the cache are not propagated. A file that cannot be read is a cache miss, and a file
+ * that cannot be written is simply not cached.
+ */
+public class DiskCache implements CompiledClassStore {
+    /**
+     * The default maximum size of the cache directory, 256MB.
+     */
+    public static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+
+    private static final int MAGIC = 0x53424443; // "SBDC"
+    private static final int VERSION = 1;
+    private static final String EXTENSION = ".sbc";
+    private static final String TMP_EXTENSION = ".tmp";
+    /**
+     * Temporary files older than this were left behind by a crashed writer and are deleted when evicting.
+     */
+    private static final long STALE_TMP_MILLIS = 60L * 60 * 1000;
+
+    private final Path directory;
+    private final long maxSize;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Create a new cache in the directory with the default maximum size {@link #DEFAULT_MAX_SIZE}.
+     *
+     * @param directory the directory of the cache. It is created if it does not exist.
+     */
+    public DiskCache(final Path directory) {
+        this(directory, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Create a new cache in the directory.
+     *
+     * @param directory the directory of the cache. It is created if it does not exist.
+     * @param maxSize   the maximum total size of the cache files in bytes
+     */
+    public DiskCache(final Path directory, final long maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The maximum size of the cache must be positive.");
+        }
+        this.directory = directory;
+        this.maxSize = maxSize;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot create the cache directory '%s'".formatted(directory), e);
+        }
+    }
+
+    @Override
+    public Optional<Map<String, byte[]>> load(final String key) {
+        final var file = fileFor(key);
+        try (final var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Cache file '%s' is corrupt".formatted(file));
+            }
+            final var count = in.readInt();
+            final var classes = new LinkedHashMap<String, byte[]>();
+            for (int i = 0; i < count; i++) {
+                final var name = in.readUTF();
+                final var code = new byte[in.readInt()];
+                in.readFully(code);
+                classes.put(name, code);
+            }
+            touch(file);
+            hits.incrementAndGet();
+            return Optional.of(classes);
+        } catch (NoSuchFileException e) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            // a truncated or otherwise corrupt file is removed, it will be recreated by the next compilation
+            delete(file);
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void store(final String key, final Map<String, byte[]> classes) {
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(directory, key, TMP_EXTENSION);
+            try (final var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(classes.size());
+                for (final var e : classes.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeInt(e.getValue().length);
+                    out.write(e.getValue());
+                }
+            }
+            final var file = fileFor(key);
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+            evict();
+        } catch (IOException ignore) {
+            // not being able to write the cache is not an error, the next compilation will just be a cache miss
+        } finally {
+            if (tmp != null) {
+                delete(tmp);
+            }
+        }
+    }
+
+    /**
+     * Delete the least recently used files from the cache until the size of the cache is not larger than the limit.
+     * <p>
+     * Other JVMs may delete the same files concurrently. Files, which disappear while evicting, are ignored.
+     */
+    private void evict() throws IOException {
+        record Entry(Path file, long size, long lastModified) {
+        }
+        final List<Entry> entries = new ArrayList<>();
+        final var now = System.currentTimeMillis();
+        try (final var files = Files.list(directory)) {
+            for (final var file : files.toList()) {
+                try {
+                    final var name = file.getFileName().toString();
+                    final var lastModified = Files.getLastModifiedTime(file).toMillis();
+                    if (name.endsWith(EXTENSION)) {
+                        entries.add(new Entry(file, Files.size(file), lastModified));
+                    } else if (name.endsWith(TMP_EXTENSION) && now - lastModified > STALE_TMP_MILLIS) {
+                        delete(file);
+                    }
+                } catch (NoSuchFileException ignore) {
+                    // deleted by another process in the meantime
+                }
+            }
+        }
+        long size = entries.stream().mapToLong(Entry::size).sum();
+        if (size <= maxSize) {
+            return;
+        }
+        entries.sort(Comparator.comparingLong(Entry::lastModified));
+        for (final var entry : entries) {
+            if (size <= maxSize) {
+                break;
+            }
+            delete(entry.file);
+            size -= entry.size;
+        }
+    }
+
+    /**
+     * @return the total size of the cache files in bytes
+     */
+    public long size() {
+        try (final var files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(EXTENSION))
+                    .mapToLong(file -> {
+                        try {
+                            return Files.size(file);
+                        } catch (IOException e) {
+                            return 0;
+                        }
+                    }).sum();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Delete all the entries from the cache.
+     */
+    public void clear() {
+        try (final var files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(EXTENSION)).forEach(DiskCache::delete);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the number of times the cache had the requested entry
+     */
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of times the cache did not have the requested entry
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+    private Path fileFor(final String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+
+    private static void touch(final Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignore) {
+            // the file may have been evicted by another process, it is not a problem
+        }
+    }
+
+    private static void delete(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignore) {
+            // it is deleted by another process or cannot be deleted, the next eviction will try again
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.javax0.sourcebuddy;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of the standard file managers used by the compilations.
+ * <p>
+ * Creating a standard file manager is cheap, but a new file manager has to open the JDK image and every JAR file on
+ * the class path again, and it has to list the packages again. A file manager used by a compilation keeps the opened
+ * archives, and the next compilation borrowing it from the pool can use them. A file manager is used only by one
+ * compilation at a time.
+ * <p>
+ * The compiler options, like the class path, set the locations of the file manager. To avoid one compilation seeing
+ * the locations set by another, the idle file managers are kept separately for each list of options. A file manager
+ * is flushed when it is returned to the pool.
+ * <p>
+ * The pool keeps at most {@code maxIdle} idle file managers for each list of options, and closes the file managers,
+ * which were not used for the configured time. The idle file managers are checked when a file manager is borrowed or
+ * returned, or when {@link #evictIdle()} is called. Closing the pool closes all the idle file managers, and the file
+ * managers returned after the pool was closed.
+ * <p>
+ * The compiler uses the pool returned by {@link #shared()}. Its size can be configured by the system property
+ * {@code sourcebuddy.fileManagerPool.size} (default is the number of processors, zero switches pooling off), and the
+ * idle time by {@code sourcebuddy.fileManagerPool.idleSeconds} (default 60).
+ */
+public final class FileManagerPool implements AutoCloseable {
+    private static final FileManagerPool SHARED = new FileManagerPool(
+            Integer.getInteger("sourcebuddy.fileManagerPool.size", Runtime.getRuntime().availableProcessors()),
+            Duration.ofSeconds(Long.getLong("sourcebuddy.fileManagerPool.idleSeconds", 60L)));
+
+    private record Idle(StandardJavaFileManager fileManager, long since) {
+    }
+
+    private final int maxIdle;
+    private final long maxIdleNanos;
+    private final Map<List<String>, Deque<Idle>> idle = new HashMap<>();
+    private final AtomicLong created = new AtomicLong();
+    private boolean closed = false;
+
+    /**
+     * Create a new pool.
+     *
+     * @param maxIdle     the maximum number of the idle file managers for one list of options. Zero means that the
+     *                    file managers are closed after each compilation.
+     * @param maxIdleTime the time after which an idle file manager is closed
+     */
+    public FileManagerPool(final int maxIdle, final Duration maxIdleTime) {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("The number of the idle file managers cannot be negative.");
+        }
+        this.maxIdle = maxIdle;
+        this.maxIdleNanos = maxIdleTime.toNanos();
+    }
+
+    /**
+     * @return the pool used by the compiler
+     */
+    public static FileManagerPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Get a file manager from the pool, or create a new one if there is no idle file manager for the options.
+     *
+     * @param compiler the compiler creating the file manager
+     * @param options  the compiler options the file manager will be used with
+     * @return the file manager, which has to be returned calling {@link #release(List, StandardJavaFileManager)}
+     */
+    StandardJavaFileManager borrow(final JavaCompiler compiler, final List<String> options) {
+        evictIdle();
+        synchronized (this) {
+            final var deque = idle.get(options);
+            if (deque != null && !deque.isEmpty()) {
+                return deque.pop().fileManager();
+            }
+        }
+        created.incrementAndGet();
+        return compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Return the file manager to the pool. If the pool already has enough idle file managers for the options, or the
+     * pool is closed, then the file manager is closed.
+     *
+     * @param options     the options the file manager was borrowed with
+     * @param fileManager the file manager
+     */
+    void release(final List<String> options, final StandardJavaFileManager fileManager) {
+        try {
+            fileManager.flush();
+        } catch (IOException e) {
+            close(fileManager);
+            return;
+        }
+        synchronized (this) {
+            if (!closed) {
+                final var deque = idle.computeIfAbsent(List.copyOf(options), k -> new ArrayDeque<>());
+                if (deque.size() < maxIdle) {
+                    deque.push(new Idle(fileManager, System.nanoTime()));
+                    return;
+                }
+            }
+        }
+        close(fileManager);
+    }
+
+    /**
+     * Close the file managers, which were idle for longer than the configured time.
+     */
+    public void evictIdle() {
+        final var evicted = new ArrayList<StandardJavaFileManager>();
+        final var now = System.nanoTime();
+        synchronized (this) {
+            for (final var it = idle.values().iterator(); it.hasNext(); ) {
+                final var deque = it.next();
+                // the oldest ones are at the end of the deque
+                while (!deque.isEmpty() && now - deque.peekLast().since() > maxIdleNanos) {
+                    evicted.add(deque.removeLast().fileManager());
+                }
+                if (deque.isEmpty()) {
+                    it.remove();
+                }
+            }
+        }
+        evicted.forEach(FileManagerPool::close);
+    }
+
+    /**
+     * @return the number of the idle file managers in the pool
+     */
+    public synchronized int idle() {
+        return idle.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    /**
+     * @return the number of the file managers created by the pool
+     */
+    public long created() {
+        return created.get();
+    }
+
+    /**
+     * Close all the idle file managers. The file managers borrowed are closed when they are returned. The pool can
+     * still be used after it was closed, but it does not keep the file managers any more.
+     */
+    @Override
+    public void close() {
+        final var evicted = new ArrayList<StandardJavaFileManager>();
+        synchronized (this) {
+            closed = true;
+            idle.values().forEach(deque -> deque.forEach(i -> evicted.add(i.fileManager())));
+            idle.clear();
+        }
+        evicted.forEach(FileManagerPool::close);
+    }
+
+    private static void close(final StandardJavaFileManager fileManager) {
+        try {
+            fileManager.close();
+        } catch (IOException ignore) {
+            // the file manager is not used any more, there is nothing to do with the error
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.javax0.sourcebuddy;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+
+/**
+ * Calculate a fingerprint, which identifies a compilation.
+ * <p>
+ * Two compilations having the same fingerprint produce the same byte codes. The fingerprint is calculated from the
+ * binary names and the source codes of the sources, the compiler options, and the version of the Java runtime
+ * executing the compiler. The fingerprint is used as a key in the caches.
+ */
+final class Fingerprint {
+
+    private final MessageDigest digest;
+
+    Fingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available on this platform", e);
+        }
+        add(Runtime.version().toString());
+    }
+
+    /**
+     * Add a string to the fingerprint.
+     * <p>
+     * The length of the string is also added, so that {@code "ab","c"} and {@code "a","bc"} result different
+     * fingerprints.
+     *
+     * @param s the string to add, {@code null} is handled as an empty string
+     * @return this
+     */
+    Fingerprint add(final String s) {
+        final var bytes = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        addLength(bytes.length);
+        digest.update(bytes);
+        return this;
+    }
+
+    /**
+     * Add the bytes to the fingerprint, for example the content of a class file.
+     *
+     * @param bytes the bytes to add
+     * @return this
+     */
+    Fingerprint add(final byte[] bytes) {
+        addLength(bytes.length);
+        digest.update(bytes);
+        return this;
+    }
+
+    /**
+     * Add all the strings of the collection to the fingerprint.
+     *
+     * @param strings the strings to add
+     * @return this
+     */
+    Fingerprint add(final Collection<String> strings) {
+        addLength(strings.size());
+        for (final var s : strings) {
+            add(s);
+        }
+        return this;
+    }
+
+    /**
+     * Add the binary names and the codes of the sources to the fingerprint.
+     *
+     * @param sources the sources to add
+     * @return this
+     */
+    Fingerprint addSources(final Collection<StringJavaSource> sources) {
+        return addSources(sources, FingerprintMode.RAW);
+    }
+
+    /**
+     * Add the binary names and the codes of the sources to the fingerprint.
+     *
+     * @param sources the sources to add
+     * @param mode    defines how the codes of the sources are added
+     * @return this
+     */
+    Fingerprint addSources(final Collection<StringJavaSource> sources, final FingerprintMode mode) {
+        addLength(sources.size());
+        for (final var source : sources) {
+            add(source.binaryName);
+            if (mode == FingerprintMode.NORMALIZED) {
+                addTokens(source.code);
+            } else {
+                add(source.code);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add the tokens of the Java source code to the fingerprint, skipping the comments and the whitespace.
+     * <p>
+     * The tokenizer is streaming. It does not create strings, it feeds the characters of the tokens into the digest
+     * through a small buffer. The tokens are separated by a separator character pair. The operators are recognized
+     * the longest match first, like the compiler does. This way {@code >>} and {@code > >} are different, just like
+     * {@code 1.5} and {@code 1 . 5}, which are different for the compiler as well.
+     *
+     * @param code the source code
+     */
+    private void addTokens(final CharSequence code) {
+        new Tokenizer(code).run();
+    }
+
+    /**
+     * The multi character operators of Java, the longer ones first. All other non identifier characters are single
+     * character tokens.
+     */
+    private static final String[] OPERATORS = {
+            ">>>=",
+            "<<=", ">>=", ">>>", "...",
+            "->", "::", "==", ">=", "<=", "!=", "&&", "||", "++", "--",
+            "+=", "-=", "*=", "/=", "&=", "|=", "^=", "%=", "<<", ">>"
+    };
+
+    private final class Tokenizer {
+        private final CharSequence code;
+        private final int length;
+        private final byte[] buffer = new byte[1024];
+        private int bufferPos = 0;
+        private int i = 0;
+
+        private Tokenizer(final CharSequence code) {
+            this.code = code == null ? "" : code;
+            this.length = this.code.length();
+        }
+
+        private void run() {
+            while (i < length) {
+                final var c = code.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                    continue;
+                }
+                if (c == '/' && i + 1 < length && code.charAt(i + 1) == '/') {
+                    skipLineComment();
+                    continue;
+                }
+                if (c == '/' && i + 1 < length && code.charAt(i + 1) == '*') {
+                    skipBlockComment();
+                    continue;
+                }
+                if (c == '"' || c == '\'') {
+                    literal(c);
+                } else if (Character.isDigit(c) || (c == '.' && i + 1 < length && Character.isDigit(code.charAt(i + 1)))) {
+                    number();
+                } else if (isIdentifierPart(c)) {
+                    word();
+                } else {
+                    operator();
+                }
+                endToken();
+            }
+            digest.update(buffer, 0, bufferPos);
+        }
+
+        private void skipLineComment() {
+            while (i < length && code.charAt(i) != '\n' && code.charAt(i) != '\r') {
+                i++;
+            }
+        }
+
+        private void skipBlockComment() {
+            i += 2;
+            while (i < length && !(code.charAt(i) == '*' && i + 1 < length && code.charAt(i + 1) == '/')) {
+                i++;
+            }
+            i = Math.min(length, i + 2);
+        }
+
+        /**
+         * Consume a string, text block or character literal, including the quotes.
+         *
+         * @param quote the quote character, {@code "} or {@code '}
+         */
+        private void literal(final char quote) {
+            final var textBlock = quote == '"' && i + 2 < length && code.charAt(i + 1) == '"' && code.charAt(i + 2) == '"';
+            final var quotes = textBlock ? 3 : 1;
+            for (int k = 0; k < quotes; k++) {
+                put(code.charAt(i++));
+            }
+            while (i < length) {
+                final var c = code.charAt(i);
+                if (c == '\\' && i + 1 < length) {
+                    put(c);
+                    put(code.charAt(i + 1));
+                    i += 2;
+                    continue;
+                }
+                if (c == quote && (!textBlock || (i + 2 < length && code.charAt(i + 1) == '"' && code.charAt(i + 2) == '"'))) {
+                    for (int k = 0; k < quotes; k++) {
+                        put(code.charAt(i++));
+                    }
+                    return;
+                }
+                if (!textBlock && (c == '\n' || c == '\r')) {
+                    // unterminated literal, the compiler will report it
+                    return;
+                }
+                put(c);
+                i++;
+            }
+        }
+
+        /**
+         * Consume a numeric literal, including the decimal point, the exponent and its sign.
+         */
+        private void number() {
+            final var hex = code.charAt(i) == '0' && i + 1 < length && (code.charAt(i + 1) == 'x' || code.charAt(i + 1) == 'X');
+            while (i < length) {
+                final var c = code.charAt(i);
+                if (Character.isLetterOrDigit(c) || c == '_' || c == '.') {
+                    put(c);
+                    i++;
+                    final var exponent = hex ? (c == 'p' || c == 'P') : (c == 'e' || c == 'E');
+                    if (exponent && i < length && (code.charAt(i) == '+' || code.charAt(i) == '-')) {
+                        put(code.charAt(i++));
+                    }
+                } else {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Consume an identifier or a keyword.
+         */
+        private void word() {
+            while (i < length) {
+                final var c = code.charAt(i);
+                if (!isIdentifierPart(c)) {
+                    return;
+                }
+                put(c);
+                i++;
+            }
+        }
+
+        private static boolean isIdentifierPart(final char c) {
+            if (c < 0x80) {
+                return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '$';
+            }
+            return Character.isJavaIdentifierPart(c);
+        }
+
+        /**
+         * Consume an operator or a separator. The longest operator matching at the current position is consumed, the
+         * same way as the Java compiler does it.
+         */
+        private void operator() {
+            if (i + 1 >= length || "=<>&|+-:.".indexOf(code.charAt(i + 1)) == -1) {
+                put(code.charAt(i++));
+                return;
+            }
+            for (final var op : OPERATORS) {
+                if (matches(op)) {
+                    for (int k = 0; k < op.length(); k++) {
+                        put(code.charAt(i++));
+                    }
+                    return;
+                }
+            }
+            put(code.charAt(i++));
+        }
+
+        private boolean matches(final String op) {
+            if (i + op.length() > length) {
+                return false;
+            }
+            for (int k = 0; k < op.length(); k++) {
+                if (code.charAt(i + k) != op.charAt(k)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void endToken() {
+            ensure(1);
+            buffer[bufferPos++] = 0;
+        }
+
+        /**
+         * Put a character of a token into the buffer.
+         * <p>
+         * The characters are encoded the same way as {@link java.io.DataOutput#writeUTF(String)} does. This encoding
+         * never produces a zero byte, which is used as the token separator.
+         *
+         * @param c the character
+         */
+        private void put(final char c) {
+            ensure(3);
+            if (c >= 0x0001 && c <= 0x007F) {
+                buffer[bufferPos++] = (byte) c;
+            } else if (c <= 0x07FF) {
+                buffer[bufferPos++] = (byte) (0xC0 | ((c >> 6) & 0x1F));
+                buffer[bufferPos++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                buffer[bufferPos++] = (byte) (0xE0 | ((c >> 12) & 0x0F));
+                buffer[bufferPos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[bufferPos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        private void ensure(final int n) {
+            if (bufferPos + n > buffer.length) {
+                digest.update(buffer, 0, bufferPos);
+                bufferPos = 0;
+            }
+        }
+    }
+
+    private void addLength(final int length) {
+        digest.update((byte) (length >>> 24));
+        digest.update((byte) (length >>> 16));
+        digest.update((byte) (length >>> 8));
+        digest.update((byte) length);
+    }
+
+    /**
+     * @return the fingerprint as a lower case hexadecimal string. The fingerprint object cannot be used after this
+     * call.
+     */
+    String hex() {
+        final var sb = new StringBuilder();
+        for (final var b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
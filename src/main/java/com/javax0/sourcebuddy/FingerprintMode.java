@@ -0,0 +1,20 @@
+package com.javax0.sourcebuddy;
+
+/**
+ * The way the sources are included in the fingerprint of a compilation, which is the key of the caches.
+ */
+public enum FingerprintMode {
+    /**
+     * The source codes are included character by character.
+     */
+    RAW,
+    /**
+     * The source codes are tokenized, and only the tokens are included. Comments and the whitespace between the
+     * tokens do not change the fingerprint.
+     * <p>
+     * Sources that differ only in comments and formatting share the same compiled result. The line numbers in the
+     * debug information of the shared byte code belong to the source compiled first. A {@code @deprecated} javadoc
+     * tag is also ignored, although it makes the compiler mark the element deprecated.
+     */
+    NORMALIZED
+}
@@ -19,10 +19,14 @@ public interface Fluent {
 
         Compiled byteCode(Path classpath) throws IOException;
 
+        Compiled bundle(Path file) throws IOException;
+
         SpecifyNestHiddenNamed from(Path path) throws IOException, ClassNotFoundException;
 
         SpecifyNestHiddenNamed from(String binary, Path path);
 
+        SpecifyNestHiddenNamed from(Path directory, String... binaryNames);
+
         SpecifyNestHiddenNamed from(String name, String source);
 
         SpecifyNestHiddenNamed from(String source) throws ClassNotFoundException;
@@ -120,15 +124,45 @@ public interface Fluent {
 
         CanIsolate systemClassPath();
 
+        CanIsolate sourcePath(Path directory);
+
         CanIsolate annotatedClasses(String... options);
 
+        CanIsolate cache(CompiledClassStore cache);
+
+        CanIsolate coalesce();
+
+        CanIsolate fingerprint(FingerprintMode mode);
+
+        CanIsolate manifest(HotManifest manifest);
+
+        CanIsolate skipUnchanged();
+
+        CanIsolate incremental();
+
+        CanIsolate signaturesOnly();
+
+        CanIsolate signatureStubs();
+
         AddSource modules(String... modules);
+
+        AddSource classPathLayer(Compiled base);
+
+        AddSource classLoader(ClassLoader loader);
+
+        AddSource indexClassPath();
+
+        AddSource indexClassPath(Path directory);
+
+        AddSource pruneClassPath();
     }
 
     interface CanIsolate extends AddSource {
 
         Compiled compile(String... options) throws Compiler.CompileException;
 
+        Validation validate();
+
         CanCompile isolate();
     }
 
@@ -166,6 +200,10 @@ public interface Fluent {
 
         void saveTo(Path path);
 
+        void saveBundle(Path file) throws IOException;
+
+        Recompilation recompilation();
+
         AddSource reset();
     }
 }
@@ -0,0 +1,82 @@
+package com.javax0.sourcebuddy;
+
+import javax.tools.SimpleJavaFileObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A source file or a resource created by an annotation processor, kept in memory.
+ * <p>
+ * The Java compiler asks the file manager for the file when the processor creates it, and also when the processor
+ * wants to read a resource from an output location. Therefore, the file exists in the file manager before anything
+ * is written into it, but it can be read only after it was written. The content of a source file is UTF-8 encoded.
+ */
+final class GeneratedFile extends SimpleJavaFileObject {
+    private final String path;
+    private ByteArrayOutputStream content = null;
+
+    /**
+     * @param path the path of the file relative to the output location, like {@code com/example/Hello.java} or
+     *             {@code META-INF/services/com.example.Service}
+     * @param kind {@link Kind#SOURCE} for a source file, {@link Kind#OTHER} for a resource
+     */
+    GeneratedFile(final String path, final Kind kind) {
+        super(URI.create("string:///" + path), kind);
+        this.path = path;
+    }
+
+    /**
+     * @return the path of the file relative to the output location
+     */
+    String path() {
+        return path;
+    }
+
+    /**
+     * @return {@code true} if the file was opened for writing
+     */
+    synchronized boolean isWritten() {
+        return content != null;
+    }
+
+    /**
+     * @return the content of the file, empty if it was not written
+     */
+    synchronized byte[] getByteArray() {
+        return content == null ? new byte[0] : content.toByteArray();
+    }
+
+    @Override
+    public synchronized InputStream openInputStream() throws FileNotFoundException {
+        if (content == null) {
+            throw new FileNotFoundException("The file " + path + " was not created.");
+        }
+        return new ByteArrayInputStream(content.toByteArray());
+    }
+
+    @Override
+    public synchronized OutputStream openOutputStream() {
+        content = new ByteArrayOutputStream();
+        return content;
+    }
+
+    @Override
+    public Writer openWriter() {
+        return new OutputStreamWriter(openOutputStream(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized CharSequence getCharContent(final boolean ignoreEncodingErrors) throws FileNotFoundException {
+        if (content == null) {
+            throw new FileNotFoundException("The file " + path + " was not created.");
+        }
+        return content.toString(StandardCharsets.UTF_8);
+    }
+}
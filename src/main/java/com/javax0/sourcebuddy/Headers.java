@@ -0,0 +1,153 @@
+package com.javax0.sourcebuddy;
+
+import com.sun.source.tree.BlockTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ExpressionStatementTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.StatementTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreeScanner;
+import com.sun.source.util.Trees;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Create the header sources of the sources, see {@link Compiler#signaturesOnly()} and {@link Compiler#signatureStubs()}.
+ * <p>
+ * The header of a source is the same source with the bodies of the methods, constructors and initializer blocks
+ * replaced by a statement throwing an exception. The declarations, the signatures and the field initializers are
+ * kept, so the compiler checks the same types, members and inheritance, but it does not attribute the code of the
+ * bodies. A constructor keeps its explicit {@code this(...)} or {@code super(...)} call, because a superclass may
+ * not have a constructor without arguments. The bodies are replaced keeping the line breaks, so the positions in the
+ * error messages are the same as in the original source.
+ */
+final class Headers {
+
+    private Headers() {
+    }
+
+    /**
+     * Create the header sources.
+     *
+     * @param compiler the Java compiler
+     * @param options  the compiler options without the path options, the parser does not need them
+     * @param sources  the sources
+     * @return the header sources with the same binary names, or the original sources if they cannot be parsed. In that
+     * case the compilation will report the syntax errors.
+     */
+    static List<StringJavaSource> strip(final JavaCompiler compiler,
+                                        final List<String> options,
+                                        final List<StringJavaSource> sources) {
+        final var pool = FileManagerPool.shared();
+        final var fileManager = pool.borrow(compiler, options);
+        try {
+            final var diagnostics = new DiagnosticCollector<JavaFileObject>();
+            if (!(compiler.getTask(Writer.nullWriter(), fileManager, diagnostics, options, null, sources) instanceof JavacTask task)) {
+                return sources;
+            }
+            final Iterable<? extends CompilationUnitTree> units;
+            try {
+                units = task.parse();
+            } catch (IOException e) {
+                return sources;
+            }
+            if (diagnostics.getDiagnostics().stream().anyMatch(d -> d.getKind() == Diagnostic.Kind.ERROR)) {
+                return sources;
+            }
+            final var positions = Trees.instance(task).getSourcePositions();
+            final var headers = new ArrayList<StringJavaSource>();
+            // the units are in the order of the sources, the file objects of the units are wrapped by javac
+            var i = 0;
+            for (final var unit : units) {
+                final var source = sources.get(i++);
+                headers.add(new StringJavaSource(source.binaryName, strip(source.code, unit, positions)));
+            }
+            return headers;
+        } finally {
+            pool.release(options, fileManager);
+        }
+    }
+
+    /**
+     * A replacement of a part of the source.
+     */
+    private record Edit(int start, int end, String replacement) {
+    }
+
+    private static String strip(final String code, final CompilationUnitTree unit, final SourcePositions positions) {
+        final var edits = new ArrayList<Edit>();
+        new TreeScanner<Void, Void>() {
+            @Override
+            public Void visitMethod(final MethodTree method, final Void v) {
+                final var body = method.getBody();
+                if (body != null) {
+                    final var first = method.getName().contentEquals("<init>") ? constructorCall(body) : null;
+                    replace(body, (first == null ? "" : " " + text(first)) + " throw null;");
+                }
+                return null;
+            }
+
+            @Override
+            public Void visitBlock(final BlockTree block, final Void v) {
+                // only the initializer blocks are visited, the method bodies and the field initializers are not
+                // scanned. The 'if' makes the block complete normally, as an initializer block has to.
+                replace(block, " if (true) throw null;");
+                return null;
+            }
+
+            @Override
+            public Void visitVariable(final VariableTree variable, final Void v) {
+                return null;
+            }
+
+            private void replace(final BlockTree block, final String statements) {
+                final var start = (int) positions.getStartPosition(unit, block);
+                final var end = (int) positions.getEndPosition(unit, block);
+                final var lines = (int) code.substring(start, end).chars().filter(c -> c == '\n').count();
+                // the position of a static initializer block is the position of the 'static' keyword
+                edits.add(new Edit(start, end, (block.isStatic() ? "static {" : "{") + statements + "\n".repeat(lines) + "}"));
+            }
+
+            private String text(final Tree tree) {
+                return code.substring((int) positions.getStartPosition(unit, tree), (int) positions.getEndPosition(unit, tree));
+            }
+        }.scan(unit, null);
+        edits.sort(Comparator.comparingInt(Edit::start).reversed());
+        final var sb = new StringBuilder(code);
+        for (final var edit : edits) {
+            sb.replace(edit.start, edit.end, edit.replacement);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param body the body of a constructor
+     * @return the first statement of the body if it is an explicit {@code this(...)} or {@code super(...)} call, or
+     * {@code null}
+     */
+    private static StatementTree constructorCall(final BlockTree body) {
+        if (body.getStatements().isEmpty()
+                || !(body.getStatements().get(0) instanceof ExpressionStatementTree statement)
+                || !(statement.getExpression() instanceof MethodInvocationTree invocation)) {
+            return null;
+        }
+        final var select = invocation.getMethodSelect();
+        final var name = select instanceof IdentifierTree identifier ? identifier.getName()
+                : select instanceof MemberSelectTree member ? member.getIdentifier() : null;
+        return name != null && (name.contentEquals("this") || name.contentEquals("super")) ? statement : null;
+    }
+}
@@ -0,0 +1,249 @@
+package com.javax0.sourcebuddy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A record of the compilations requested by the application and the number of times they were requested.
+ * <p>
+ * A compiler configured with a manifest (see {@link Compiler#manifest(HotManifest)}) records every compilation
+ * request in the manifest, including the ones served from a cache. The manifest can be saved when the application
+ * stops and loaded on the next start. The most often requested entries can then be compiled or loaded from a
+ * persistent cache in the background, before the first request arrives, using {@link WarmUp}.
+ * <p>
+ * The entries contain the source code and the options needed to repeat the compilation. The manifest file should
+ * be treated with the same care as the sources. The compilations against a class path layer or the classes of a class
+ * loader are not recorded, these cannot be repeated in a new JVM.
+ */
+public class HotManifest {
+    private static final int MAGIC = 0x5342484d; // "SBHM"
+    private static final int VERSION = 2;
+
+    /**
+     * A recorded compilation.
+     *
+     * @param key              the fingerprint of the compilation when it was recorded
+     * @param sources          the binary names and the source codes of the compilation units
+     * @param options          the compiler options without the class path and module path options
+     * @param isolated         {@code true} if the compilation was {@link Compiler#isolate() isolated}, otherwise the
+     *                         class path and module path of the running JVM are used
+     * @param annotatedClasses the classes passed to the annotation processing
+     * @param modules          the root modules added to the compilation
+     * @param mode             the fingerprint mode used by the compilation
+     * @param sourcePath       the {@link Compiler#sourcePath(Path) source path} directories
+     * @param signaturesOnly   {@code true} if the compilation was {@link Compiler#signaturesOnly() signatures only}
+     * @param signatureStubs   {@code true} if the compilation created {@link Compiler#signatureStubs() stubs}
+     */
+    public record Entry(String key,
+                        Map<String, String> sources,
+                        List<String> options,
+                        boolean isolated,
+                        List<String> annotatedClasses,
+                        List<String> modules,
+                        FingerprintMode mode,
+                        List<String> sourcePath,
+                        boolean signaturesOnly,
+                        boolean signatureStubs) {
+
+        /**
+         * Repeat the compilation using the given store. If the store has the entry, the byte codes are loaded from
+         * the store, otherwise the sources are compiled, and the result is stored.
+         *
+         * @param store the store to use, may be {@code null}
+         * @return the compiled session
+         * @throws Compiler.CompileException if the compilation fails
+         */
+        public Fluent.Compiled compile(final CompiledClassStore store) throws Compiler.CompileException {
+            final var compiler = Compiler.java();
+            for (final var source : sources.entrySet()) {
+                compiler.from(source.getKey(), source.getValue());
+            }
+            for (final var directory : sourcePath) {
+                compiler.sourcePath(Path.of(directory));
+            }
+            if (signaturesOnly) {
+                compiler.signaturesOnly();
+            }
+            if (signatureStubs) {
+                compiler.signatureStubs();
+            }
+            final var configured = compiler.annotatedClasses(annotatedClasses.toArray(String[]::new))
+                    .modules(modules.toArray(String[]::new))
+                    .fingerprint(mode)
+                    .cache(store)
+                    .options(options.toArray(String[]::new));
+            return isolated ? configured.isolate().compile() : configured.compile();
+        }
+    }
+
+    private record Counted(Entry entry, AtomicLong count) {
+    }
+
+    private final Map<String, Counted> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Record a compilation request.
+     *
+     * @param entry the compilation
+     */
+    void record(final Entry entry) {
+        entries.computeIfAbsent(entry.key(), k -> new Counted(entry, new AtomicLong())).count().incrementAndGet();
+    }
+
+    /**
+     * @param key the fingerprint of the compilation
+     * @return the number of times the compilation was requested, zero if it was never recorded
+     */
+    public long count(final String key) {
+        final var counted = entries.get(key);
+        return counted == null ? 0 : counted.count().get();
+    }
+
+    /**
+     * @return the number of the different compilations recorded
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the most often requested compilations.
+     *
+     * @param n the maximum number of entries to return
+     * @return the entries in decreasing order of the number of requests
+     */
+    public List<Entry> top(final int n) {
+        return entries.values().stream()
+                .sorted(Comparator.comparingLong((Counted c) -> c.count().get()).reversed())
+                .limit(n)
+                .map(Counted::entry)
+                .toList();
+    }
+
+    /**
+     * Save the manifest into a file. The file is written to a temporary file first and then moved to its place, so
+     * that a reader does not see a partially written manifest.
+     *
+     * @param file the manifest file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(final Path file) throws IOException {
+        final var tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (final var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                final var snapshot = new ArrayList<>(entries.values());
+                out.writeInt(snapshot.size());
+                for (final var counted : snapshot) {
+                    final var entry = counted.entry();
+                    out.writeUTF(entry.key());
+                    out.writeLong(counted.count().get());
+                    out.writeUTF(entry.mode().name());
+                    out.writeInt(entry.sources().size());
+                    for (final var source : entry.sources().entrySet()) {
+                        out.writeUTF(source.getKey());
+                        writeString(out, source.getValue());
+                    }
+                    writeStrings(out, entry.options());
+                    out.writeBoolean(entry.isolated());
+                    writeStrings(out, entry.annotatedClasses());
+                    writeStrings(out, entry.modules());
+                    writeStrings(out, entry.sourcePath());
+                    out.writeBoolean(entry.signaturesOnly());
+                    out.writeBoolean(entry.signatureStubs());
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Load a manifest from a file. The entries are added to the entries already in this manifest, and the counts of
+     * the entries, which are already recorded, are summed.
+     *
+     * @param file the manifest file saved by {@link #save(Path)}
+     * @return this
+     * @throws IOException if the file cannot be read or it is not a manifest file
+     */
+    public HotManifest load(final Path file) throws IOException {
+        try (final var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("The file '%s' is not a manifest file".formatted(file));
+            }
+            final var count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                final var key = in.readUTF();
+                final var requests = in.readLong();
+                final var mode = FingerprintMode.valueOf(in.readUTF());
+                final var sourceCount = in.readInt();
+                final var sources = new LinkedHashMap<String, String>();
+                for (int j = 0; j < sourceCount; j++) {
+                    sources.put(in.readUTF(), readString(in));
+                }
+                final var options = readStrings(in);
+                final var isolated = in.readBoolean();
+                final var annotatedClasses = readStrings(in);
+                final var modules = readStrings(in);
+                final var sourcePath = readStrings(in);
+                final var signaturesOnly = in.readBoolean();
+                final var entry = new Entry(key, sources, options, isolated, annotatedClasses, modules, mode,
+                        sourcePath, signaturesOnly, in.readBoolean());
+                entries.computeIfAbsent(key, k -> new Counted(entry, new AtomicLong())).count().addAndGet(requests);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Write a string, which may be longer than the 64K limit of {@link DataOutputStream#writeUTF(String)}.
+     */
+    private static void writeString(final DataOutputStream out, final String s) throws IOException {
+        final var bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final var bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(final DataOutputStream out, final List<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (final var s : strings) {
+            writeString(out, s);
+        }
+    }
+
+    private static List<String> readStrings(final DataInputStream in) throws IOException {
+        final var n = in.readInt();
+        final var strings = new ArrayList<String>(n);
+        for (int i = 0; i < n; i++) {
+            strings.add(readString(in));
+        }
+        return List.copyOf(strings);
+    }
+}
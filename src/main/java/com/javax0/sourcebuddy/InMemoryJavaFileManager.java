@@ -5,8 +5,13 @@ import javax.tools.ForwardingJavaFileManager;
 import javax.tools.JavaFileObject;
 import javax.tools.JavaFileObject.Kind;
 import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * A file manager that stores the compiled bytes in a {@link HashMap}.
@@ -25,24 +30,277 @@ public class InMemoryJavaFileManager extends
 
     final static StandardJavaFileManager fake = new FakeFileManager();
 
-    private final Map<String, MemoryFileObject> classFilesMap = new HashMap<>();
+    private Map<String, MemoryFileObject> classFilesMap;
+    /**
+     * The binary names of the sources the class files were compiled from, keyed by the binary names of the classes.
+     */
+    private Map<String, String> origins;
+    /**
+     * Class files presented to the compiler on the class path, keyed by the binary names.
+     */
+    private Map<String, MemoryFileObject> classPathFiles;
+    /**
+     * The classes of an earlier compilation presented to the compiler on the class path, or {@code null}.
+     */
+    private ClassLayer layer;
+    /**
+     * The index answering the class path lookups instead of the standard file manager, or {@code null}.
+     */
+    private ClassPathIndex index;
+    /**
+     * The source files and resources created by the annotation processors in the source output, keyed by the paths.
+     */
+    private Map<String, GeneratedFile> sourceOutput;
+    /**
+     * The resources created by the annotation processors in the class output, keyed by the paths.
+     */
+    private Map<String, GeneratedFile> resources;
 
     protected InMemoryJavaFileManager(final StandardJavaFileManager fileManager) {
         super(fileManager == null ? fake : fileManager);
+        this.classFilesMap = new HashMap<>();
+        this.origins = new HashMap<>();
+        this.classPathFiles = new HashMap<>();
+        this.sourceOutput = new HashMap<>();
+        this.resources = new HashMap<>();
+    }
+
+    /**
+     * Create a file manager sharing the state of another in-memory file manager. It is used to create a file manager
+     * for one compilation task forwarding to a pooled standard file manager, while the compiled classes are collected
+     * in the file manager of the compiler.
+     *
+     * @param fileManager the standard file manager to forward to
+     * @param state       the file manager holding the maps, can be {@code null}, see {@link #share(InMemoryJavaFileManager)}
+     */
+    InMemoryJavaFileManager(final StandardJavaFileManager fileManager, final InMemoryJavaFileManager state) {
+        super(fileManager == null ? fake : fileManager);
+        share(state);
     }
 
     public Map<String, MemoryFileObject> getClassFileObjectsMap() {
         return classFilesMap;
     }
 
+    /**
+     * @return the map of the binary names of the compiled classes to the binary names of the sources they were
+     * compiled from
+     */
+    Map<String, String> getOrigins() {
+        return origins;
+    }
+
+    /**
+     * @return the class files, which are presented to the compiler on the class path. The map can be modified.
+     */
+    Map<String, MemoryFileObject> getClassPathFiles() {
+        return classPathFiles;
+    }
+
+    /**
+     * @return the source files and resources created by the annotation processors in the source output, keyed by the
+     * paths relative to the output
+     */
+    Map<String, GeneratedFile> getSourceOutput() {
+        return sourceOutput;
+    }
+
+    /**
+     * @return the resources created by the annotation processors in the class output, keyed by the resource names.
+     * The files opened by the processors for reading only are also in the map, but they are not written.
+     */
+    Map<String, GeneratedFile> getResources() {
+        return resources;
+    }
+
+    /**
+     * Use the maps of the other file manager. It is used by a file manager, which is kept by a javac context between
+     * the compilations of different compilers, see {@link CompilerSession}.
+     *
+     * @param state the file manager holding the maps, or {@code null} to release the maps of the last compilation
+     */
+    void share(final InMemoryJavaFileManager state) {
+        this.classFilesMap = state == null ? null : state.classFilesMap;
+        this.origins = state == null ? null : state.origins;
+        this.classPathFiles = state == null ? null : state.classPathFiles;
+        this.layer = state == null ? null : state.layer;
+        this.index = state == null ? null : state.index;
+        this.sourceOutput = state == null ? null : state.sourceOutput;
+        this.resources = state == null ? null : state.resources;
+    }
+
+    /**
+     * @param layer the classes of an earlier compilation to present to the compiler on the class path
+     */
+    void setLayer(final ClassLayer layer) {
+        this.layer = layer;
+    }
+
+    /**
+     * @return {@code true} if the compiler finds classes on the class path, which are not on the class path given in
+     * the options: the classes of a layer, the class path files, or the classes of an index other than the index of
+     * the class path
+     */
+    boolean hasOwnClassPath() {
+        return layer != null || !classPathFiles.isEmpty() || (index != null && !(index instanceof PackageIndex));
+    }
+
+    /**
+     * @return the index answering the class path lookups instead of the standard file manager, or {@code null}
+     */
+    ClassPathIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * @param index the index answering the class path lookups instead of the standard file manager
+     */
+    void setIndex(final ClassPathIndex index) {
+        this.index = index;
+    }
+
     @Override
     public JavaFileObject getJavaFileForOutput(final Location location,
                                                final String className,
                                                final Kind kind,
-                                               final FileObject sibling) {
+                                               final FileObject sibling) throws IOException {
+        if (kind == Kind.SOURCE) {
+            return generated(sourceOutput, className.replace('.', '/') + kind.extension, kind);
+        }
+        if (kind != Kind.CLASS) {
+            return super.getJavaFileForOutput(location, className, kind, sibling);
+        }
         final var fileObject = new MemoryFileObject(className);
         classFilesMap.put(className, fileObject);
+        if (sibling instanceof StringJavaSource source) {
+            origins.put(className, source.binaryName);
+        }
         return fileObject;
     }
 
+    /**
+     * Get a resource created by an annotation processor. The resources of the class output and the source output are
+     * kept in memory, the other locations are handled by the standard file manager.
+     */
+    @Override
+    public FileObject getFileForOutput(final Location location,
+                                       final String packageName,
+                                       final String relativeName,
+                                       final FileObject sibling) throws IOException {
+        final var path = packageName.isEmpty() ? relativeName : packageName.replace('.', '/') + "/" + relativeName;
+        if (location == StandardLocation.CLASS_OUTPUT) {
+            return generated(resources, path, Kind.OTHER);
+        }
+        if (location == StandardLocation.SOURCE_OUTPUT) {
+            return generated(sourceOutput, path, path.endsWith(Kind.SOURCE.extension) ? Kind.SOURCE : Kind.OTHER);
+        }
+        return super.getFileForOutput(location, packageName, relativeName, sibling);
+    }
+
+    @Override
+    public FileObject getFileForInput(final Location location,
+                                      final String packageName,
+                                      final String relativeName) throws IOException {
+        final var path = packageName.isEmpty() ? relativeName : packageName.replace('.', '/') + "/" + relativeName;
+        final var files = location == StandardLocation.CLASS_OUTPUT ? resources
+                : location == StandardLocation.SOURCE_OUTPUT ? sourceOutput : null;
+        if (files != null && files.containsKey(path) && files.get(path).isWritten()) {
+            return files.get(path);
+        }
+        return super.getFileForInput(location, packageName, relativeName);
+    }
+
+    /**
+     * @param files the map of the generated files of the location
+     * @param path  the path of the file relative to the location
+     * @param kind  the kind of the file
+     * @return the file already in the map, or a new one put into the map
+     */
+    private static GeneratedFile generated(final Map<String, GeneratedFile> files, final String path, final Kind kind) {
+        return files.computeIfAbsent(path, k -> new GeneratedFile(k, kind));
+    }
+
+    @Override
+    public Iterable<JavaFileObject> list(final Location location,
+                                         final String packageName,
+                                         final Set<Kind> kinds,
+                                         final boolean recurse) throws IOException {
+        if (location != StandardLocation.CLASS_PATH) {
+            return super.list(location, packageName, kinds, recurse);
+        }
+        final var listed = index == null ? super.list(location, packageName, kinds, recurse) : List.<JavaFileObject>of();
+        if (!kinds.contains(Kind.CLASS) || (classPathFiles.isEmpty() && layer == null && index == null)) {
+            return listed;
+        }
+        final var files = new ArrayList<JavaFileObject>();
+        if (index != null) {
+            index.list(packageName, recurse, files);
+        }
+        if (layer != null) {
+            layer.list(packageName, recurse, files);
+        }
+        for (final var e : classPathFiles.entrySet()) {
+            final var name = e.getKey();
+            final var dot = name.lastIndexOf('.');
+            final var pckg = dot == -1 ? "" : name.substring(0, dot);
+            if (pckg.equals(packageName) || (recurse && pckg.startsWith(packageName + "."))) {
+                files.add(e.getValue());
+            }
+        }
+        if (files.isEmpty()) {
+            return listed;
+        }
+        if (listed != null) {
+            listed.forEach(files::add);
+        }
+        return files;
+    }
+
+    @Override
+    public ClassLoader getClassLoader(final Location location) {
+        if (location == StandardLocation.CLASS_PATH && index instanceof ClassLoaderIndex loaderIndex) {
+            // javac closes the annotation processor class loader if it is closeable, the wrapper is not
+            return new ClassLoader(loaderIndex.loader()) {
+            };
+        }
+        return super.getClassLoader(location);
+    }
+
+    @Override
+    public String inferBinaryName(final Location location, final JavaFileObject file) {
+        if (file instanceof MemoryFileObject memoryFile) {
+            return memoryFile.getName();
+        }
+        if (file instanceof IndexedClassFile indexedFile) {
+            return indexedFile.binaryName();
+        }
+        return super.inferBinaryName(location, file);
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForInput(final Location location, final String className, final Kind kind) throws IOException {
+        if (location == StandardLocation.CLASS_PATH && kind == Kind.CLASS) {
+            if (classPathFiles.containsKey(className)) {
+                return classPathFiles.get(className);
+            }
+            final var file = layer == null ? null : layer.find(className);
+            if (file != null) {
+                return file;
+            }
+            if (index != null) {
+                return index.find(className);
+            }
+        }
+        return super.getJavaFileForInput(location, className, kind);
+    }
+
+    @Override
+    public boolean isSameFile(final FileObject a, final FileObject b) {
+        if (a instanceof MemoryFileObject || b instanceof MemoryFileObject
+                || a instanceof IndexedClassFile || b instanceof IndexedClassFile
+                || a instanceof GeneratedFile || b instanceof GeneratedFile) {
+            return a == b;
+        }
+        return super.isSameFile(a, b);
+    }
 }
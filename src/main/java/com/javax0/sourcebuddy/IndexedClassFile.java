@@ -0,0 +1,74 @@
+package com.javax0.sourcebuddy;
+
+import javax.tools.SimpleJavaFileObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * A class file found by a {@link ClassPathIndex}. The content is read only when the compiler opens the file.
+ */
+final class IndexedClassFile extends SimpleJavaFileObject {
+
+    /**
+     * Open the content of a class file.
+     */
+    @FunctionalInterface
+    interface Opener {
+        InputStream open() throws IOException;
+    }
+
+    private final String binaryName;
+    private final String root;
+    private final Opener opener;
+
+    /**
+     * @param uri        the location of the class file, used in the messages of the compiler
+     * @param binaryName the binary name of the class
+     * @param opener     opens the content of the class file
+     */
+    IndexedClassFile(final URI uri, final String binaryName, final Opener opener) {
+        this(uri, binaryName, null, opener);
+    }
+
+    /**
+     * @param uri        the location of the class file, used in the messages of the compiler
+     * @param binaryName the binary name of the class
+     * @param root       the class path entry, directory or JAR file, containing the class file
+     * @param opener     opens the content of the class file
+     */
+    IndexedClassFile(final URI uri, final String binaryName, final String root, final Opener opener) {
+        super(uri, Kind.CLASS);
+        this.binaryName = binaryName;
+        this.root = root;
+        this.opener = opener;
+    }
+
+    /**
+     * @return the binary name of the class
+     */
+    String binaryName() {
+        return binaryName;
+    }
+
+    /**
+     * @return the class path entry containing the class file, or {@code null} if it is not known
+     */
+    String root() {
+        return root;
+    }
+
+    @Override
+    public InputStream openInputStream() throws IOException {
+        final var in = opener.open();
+        if (in == null) {
+            throw new IOException("The class file " + toUri() + " cannot be opened.");
+        }
+        return in;
+    }
+
+    @Override
+    public boolean isNameCompatible(final String simpleName, final Kind kind) {
+        return kind == Kind.CLASS && binaryName.substring(binaryName.lastIndexOf('.') + 1).equals(simpleName);
+    }
+}
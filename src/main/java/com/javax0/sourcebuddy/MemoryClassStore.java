@@ -0,0 +1,39 @@
+package com.javax0.sourcebuddy;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A {@link CompiledClassStore} keeping the entries in memory in a {@link BoundedCache}.
+ */
+public class MemoryClassStore implements CompiledClassStore {
+
+    private final BoundedCache<Map<String, byte[]>> cache;
+
+    /**
+     * Create a new store.
+     *
+     * @param maxSize    the maximum number of the entries
+     * @param softValues {@code true} if the entries are to be referenced softly
+     */
+    public MemoryClassStore(final int maxSize, final boolean softValues) {
+        this.cache = new BoundedCache<>(maxSize, softValues);
+    }
+
+    @Override
+    public Optional<Map<String, byte[]>> load(final String key) {
+        return Optional.ofNullable(cache.get(key));
+    }
+
+    @Override
+    public void store(final String key, final Map<String, byte[]> classes) {
+        cache.put(key, Map.copyOf(classes));
+    }
+
+    /**
+     * @return the underlying cache, which can be used to query the counters and to configure the store
+     */
+    public BoundedCache<Map<String, byte[]>> cache() {
+        return cache;
+    }
+}
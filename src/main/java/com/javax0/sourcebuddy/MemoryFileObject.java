@@ -10,17 +10,34 @@ import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.Date;
 
 public class MemoryFileObject implements JavaFileObject {
 
     private final String name;
-    private final ByteArrayOutputStream fileBytesContent = new ByteArrayOutputStream();
+    private ByteArrayOutputStream fileBytesContent = new ByteArrayOutputStream();
+    /**
+     * The content when the file object is backed by a memory mapped file, or {@code null} if the content is in
+     * {@link #fileBytesContent}.
+     */
+    private ByteBuffer mapped = null;
 
     public MemoryFileObject(final String name) {
         this.name = name;
     }
 
+    /**
+     * Create a file object, which has the content in a buffer, usually a slice of a memory mapped file.
+     *
+     * @param name    the name of the file object
+     * @param content the content between the position and the limit of the buffer. The buffer is not copied.
+     */
+    MemoryFileObject(final String name, final ByteBuffer content) {
+        this.name = name;
+        this.mapped = content;
+    }
+
     @Override
     public URI toUri() {
         return URI.create("string:///" + name.replace('.', '/')
@@ -34,15 +51,40 @@ public class MemoryFileObject implements JavaFileObject {
 
     @Override
     public InputStream openInputStream() {
-        return new ByteArrayInputStream(fileBytesContent.toByteArray());
+        return new ByteArrayInputStream(getByteArray());
     }
 
     public byte[] getByteArray() {
+        if (mapped != null) {
+            final var buffer = mapped.duplicate();
+            final var bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        }
         return fileBytesContent.toByteArray();
     }
 
+    /**
+     * @return the buffer containing the content if the file object is backed by a buffer, or {@code null}
+     */
+    ByteBuffer getByteBuffer() {
+        return mapped == null ? null : mapped.duplicate();
+    }
+
+    /**
+     * Replace the content on the heap with the same content in the buffer. The class loader calls it when it copied
+     * the byte code outside the heap, so the file object does not keep a second copy on the heap.
+     *
+     * @param content the content between the position and the limit of the buffer. The buffer is not copied.
+     */
+    void moveTo(final ByteBuffer content) {
+        mapped = content;
+        fileBytesContent = new ByteArrayOutputStream(0);
+    }
+
     @Override
     public OutputStream openOutputStream() {
+        mapped = null;
         return fileBytesContent;
     }
 
@@ -0,0 +1,344 @@
+package com.javax0.sourcebuddy;
+
+import javax.tools.JavaFileObject;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * An index of the classes on the class path, answering the class path lookups of the Java compiler, see
+ * {@link Compiler#indexClassPath()}.
+ * <p>
+ * The standard file manager answers the listing of a package scanning the central directories of the JAR files on the
+ * class path. With many JAR files this is a significant fixed cost of every compilation. The index reads the central
+ * directory of every JAR file once from the memory mapped file, see {@link ZipDirectory}, and keeps a map from the
+ * package names to the class files. The entries are read in parallel. When the same class is in more than one entry,
+ * the first one is used, like the class loader does.
+ * <p>
+ * The index of the system class path is built again only when the {@link ClasspathFingerprint#system() class path
+ * fingerprint} changes, reading only the central directories of the changed JAR files. It can also be persisted, see
+ * {@link #system(Path)}. The versioned entries of multi-release JAR files are used for the version of the running
+ * Java runtime.
+ */
+final class PackageIndex implements ClassPathIndex {
+    private static final String VERSIONS = "META-INF/versions/";
+    private static final String MANIFEST = "META-INF/MANIFEST.MF";
+
+    private static PackageIndex system = null;
+    private static String systemDigest = null;
+    private static Path systemDirectory = null;
+
+    /**
+     * A JAR file of the class path with the entries of the class files in the index.
+     *
+     * @param path     the path of the JAR file
+     * @param size     the size of the file when the central directory was read
+     * @param modified the modification time of the file in milliseconds when the central directory was read
+     * @param classes  the entries of the class files, the versioned entries already selected for the Java runtime
+     */
+    record Jar(String path, long size, long modified, List<ZipDirectory.Entry> classes) {
+    }
+
+    /**
+     * The result of indexing a class path entry.
+     *
+     * @param classes the class files keyed by the binary names
+     * @param jar     the JAR file, or {@code null} if the entry is a directory or cannot be read
+     * @param read    {@code true} if the central directory of the JAR file was read, {@code false} if the known
+     *                entries were reused
+     */
+    private record Root(Map<String, JavaFileObject> classes, Jar jar, boolean read) {
+    }
+
+    private final Map<String, JavaFileObject> files = new HashMap<>();
+    private final Map<String, List<JavaFileObject>> packages = new HashMap<>();
+    private final Map<String, Jar> jars = new LinkedHashMap<>();
+    private final int read;
+
+    /**
+     * Build the index of the entries.
+     *
+     * @param entries the class path entries, directories and JAR files, in the order of the class path
+     */
+    PackageIndex(final List<String> entries) {
+        this(entries, Map.of());
+    }
+
+    /**
+     * Build the index of the entries, reusing the known entries of the JAR files, which did not change.
+     *
+     * @param entries the class path entries, directories and JAR files, in the order of the class path
+     * @param known   the JAR files indexed earlier keyed by the paths. The central directory of a JAR file is read
+     *                only when it is not known, or its size or modification time is different.
+     */
+    PackageIndex(final List<String> entries, final Map<String, Jar> known) {
+        final var roots = entries.parallelStream().map(entry -> root(entry, known.get(entry))).toList();
+        var read = 0;
+        for (final var root : roots) {
+            if (root.jar != null) {
+                jars.put(root.jar.path, root.jar);
+            }
+            if (root.read) {
+                read++;
+            }
+            for (final var e : root.classes.entrySet()) {
+                if (!files.containsKey(e.getKey())) {
+                    files.put(e.getKey(), e.getValue());
+                    packages.computeIfAbsent(packageOf(e.getKey()), k -> new ArrayList<>()).add(e.getValue());
+                }
+            }
+        }
+        this.read = read;
+    }
+
+    /**
+     * @return the index of the system class path. It is built the first time, and it is built again when the class
+     * path fingerprint changes.
+     */
+    static PackageIndex system() {
+        return system(null);
+    }
+
+    /**
+     * Get the index of the system class path, persisting it in the directory.
+     * <p>
+     * The index is built the first time, and it is built again when the class path fingerprint changes. When the
+     * directory is not {@code null}, the index is saved into a file in the directory, named after the fingerprint of
+     * the class path entries, and the next JVM with the same class path reads the file instead of reading the central
+     * directories of the JAR files. Only the central directories of the JAR files with a different size or
+     * modification time are read again, and the file is updated. The directories on the class path are not persisted,
+     * they are scanned every time the index is built.
+     *
+     * @param directory the directory of the persisted index files, or {@code null} not to persist the index
+     * @return the index
+     */
+    static synchronized PackageIndex system(final Path directory) {
+        final var digest = ClasspathFingerprint.system().digest();
+        if (system == null || !digest.equals(systemDigest) || !Objects.equals(directory, systemDirectory)) {
+            final var entries = classPathEntries();
+            final var file = directory == null ? null : PackageIndexFile.file(directory, entries);
+            final var known = file == null ? null : PackageIndexFile.read(file);
+            system = new PackageIndex(entries, known != null ? known : system == null ? Map.of() : system.jars);
+            if (file != null && (known == null || system.read > 0 || !known.keySet().equals(system.jars.keySet()))) {
+                PackageIndexFile.write(file, system.jars.values());
+            }
+            systemDigest = digest;
+            systemDirectory = directory;
+        }
+        return system;
+    }
+
+    /**
+     * @return the entries of the class path in the order of the class path, followed by the entries referenced from
+     * the manifests of the JAR files
+     */
+    static List<String> classPathEntries() {
+        final var entries = new LinkedHashSet<String>();
+        for (final var entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                try {
+                    entries.add(new File(entry).getCanonicalPath());
+                } catch (IOException e) {
+                    entries.add(entry);
+                }
+            }
+        }
+        entries.addAll(ClasspathCollector.getEntries());
+        return List.copyOf(entries);
+    }
+
+    /**
+     * @return the number of JAR files whose central directory was read building this index
+     */
+    int read() {
+        return read;
+    }
+
+    /**
+     * @return the number of classes in the index
+     */
+    int size() {
+        return files.size();
+    }
+
+    @Override
+    public void list(final String packageName, final boolean recurse, final List<JavaFileObject> list) {
+        if (recurse) {
+            for (final var e : packages.entrySet()) {
+                if (e.getKey().equals(packageName) || packageName.isEmpty() || e.getKey().startsWith(packageName + ".")) {
+                    list.addAll(e.getValue());
+                }
+            }
+        } else {
+            list.addAll(packages.getOrDefault(packageName, List.of()));
+        }
+    }
+
+    @Override
+    public JavaFileObject find(final String name) {
+        return files.get(name);
+    }
+
+    /**
+     * Read the class files of a class path entry.
+     *
+     * @param entry the directory or JAR file
+     * @param known the JAR file indexed earlier, or {@code null}
+     * @return the class files, empty if the entry does not exist or cannot be read
+     */
+    private static Root root(final String entry, final Jar known) {
+        final var path = Paths.get(entry);
+        final var classes = new LinkedHashMap<String, JavaFileObject>();
+        try {
+            if (Files.isDirectory(path)) {
+                try (final Stream<Path> walk = Files.walk(path)) {
+                    walk.filter(Files::isRegularFile).forEach(file -> {
+                        final var name = binaryName(path.relativize(file).toString().replace(File.separatorChar, '/'));
+                        if (name != null) {
+                            classes.put(name, new IndexedClassFile(file.toUri(), name, entry, () -> Files.newInputStream(file)));
+                        }
+                    });
+                }
+                return new Root(classes, null, false);
+            }
+            if (Files.isRegularFile(path)) {
+                final var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                final var size = attributes.size();
+                final var modified = attributes.lastModifiedTime().toMillis();
+                final var fresh = known != null && known.size == size && known.modified == modified;
+                final ZipDirectory zip = fresh ? null : ZipDirectory.read(path);
+                final var jar = fresh ? known : new Jar(entry, size, modified, classEntries(zip));
+                final var mapped = new Mapped(path, zip);
+                for (final var classEntry : jar.classes) {
+                    final var name = binaryName(unversioned(classEntry.name()));
+                    classes.put(name, new IndexedClassFile(uri(path, classEntry.name()), name, entry, () -> mapped.get().open(classEntry)));
+                }
+                return new Root(classes, jar, !fresh);
+            }
+        } catch (IOException | RuntimeException e) {
+            // the compiler reports the missing classes, like it would do for an unreadable entry
+        }
+        return new Root(Map.of(), null, false);
+    }
+
+    /**
+     * A JAR file mapped into the memory the first time an entry is opened, unless it was already mapped to read the
+     * central directory.
+     */
+    private static final class Mapped {
+        private final Path path;
+        private ZipDirectory zip;
+
+        private Mapped(final Path path, final ZipDirectory zip) {
+            this.path = path;
+            this.zip = zip;
+        }
+
+        private synchronized ZipDirectory get() throws IOException {
+            if (zip == null) {
+                zip = ZipDirectory.mapped(path);
+            }
+            return zip;
+        }
+    }
+
+    /**
+     * Select the entries of the class files. A versioned entry of a multi-release JAR file replaces the entry of the
+     * same class, when the version is not greater than the version of the Java runtime.
+     *
+     * @param zip the central directory of the JAR file
+     * @return the selected entries
+     */
+    private static List<ZipDirectory.Entry> classEntries(final ZipDirectory zip) throws IOException {
+        final var multiRelease = isMultiRelease(zip);
+        final var versions = new HashMap<String, Integer>();
+        final var selected = new LinkedHashMap<String, ZipDirectory.Entry>();
+        final var feature = Runtime.version().feature();
+        for (final var entry : zip.entries()) {
+            final var resource = unversioned(entry.name());
+            var version = 0;
+            if (resource != entry.name()) {
+                if (!multiRelease) {
+                    continue;
+                }
+                version = Integer.parseInt(entry.name().substring(VERSIONS.length(), entry.name().indexOf('/', VERSIONS.length())));
+                if (version > feature) {
+                    continue;
+                }
+            }
+            final var name = binaryName(resource);
+            if (name != null && version >= versions.getOrDefault(name, 0)) {
+                versions.put(name, version);
+                selected.put(name, entry);
+            }
+        }
+        return List.copyOf(selected.values());
+    }
+
+    /**
+     * @param entry the name of a JAR entry
+     * @return the name without the {@code META-INF/versions/N/} prefix, or the same string object if the entry is not
+     * a versioned entry
+     */
+    private static String unversioned(final String entry) {
+        if (entry.startsWith(VERSIONS)) {
+            final var slash = entry.indexOf('/', VERSIONS.length());
+            if (slash != -1 && entry.substring(VERSIONS.length(), slash).chars().allMatch(Character::isDigit) && slash > VERSIONS.length()) {
+                return entry.substring(slash + 1);
+            }
+        }
+        return entry;
+    }
+
+    private static boolean isMultiRelease(final ZipDirectory zip) throws IOException {
+        for (final var entry : zip.entries()) {
+            if (entry.name().equals(MANIFEST)) {
+                final var manifest = new String(zip.read(entry), StandardCharsets.UTF_8);
+                return manifest.lines().anyMatch(line -> line.trim().equalsIgnoreCase("Multi-Release: true"));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param resource the name of the resource relative to the root
+     * @return the binary name of the class, or {@code null} if the resource is not a class file of a class
+     */
+    private static String binaryName(final String resource) {
+        if (!resource.endsWith(".class") || resource.startsWith("META-INF/") || resource.endsWith("module-info.class")) {
+            return null;
+        }
+        return resource.substring(0, resource.length() - ".class".length()).replace('/', '.');
+    }
+
+    /**
+     * @return the URI of the entry in the form {@code jar:/path/file.jar!/entry}. The URI is used in the messages of
+     * the compiler, and it has to be hierarchical, therefore it is not a URL of the JAR URL handler.
+     */
+    private static URI uri(final Path jar, final String entry) {
+        try {
+            return new URI("jar", null, jar.toAbsolutePath().normalize().toUri().getPath() + "!/" + entry, null);
+        } catch (URISyntaxException e) {
+            return jar.toUri();
+        }
+    }
+
+    private static String packageOf(final String name) {
+        final var dot = name.lastIndexOf('.');
+        return dot == -1 ? "" : name.substring(0, dot);
+    }
+}
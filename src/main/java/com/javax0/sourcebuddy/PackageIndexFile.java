@@ -0,0 +1,147 @@
+package com.javax0.sourcebuddy;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read and write the persisted {@link PackageIndex} of the class path.
+ * <p>
+ * The file contains the JAR files of the class path with their size and modification time, and the entries of the
+ * class files in them, see {@link PackageIndex.Jar}. The name of the file is the fingerprint of the class path
+ * entries and the Java runtime version, so different class paths and runtimes use different files. The file is
+ * memory mapped when it is read.
+ * <p>
+ * The files are written to a temporary file first and then moved atomically to their final name, the same way as the
+ * {@link DiskCache} files. Errors reading or writing the file are not propagated, a file that cannot be read is
+ * ignored and the index is built reading the JAR files.
+ */
+final class PackageIndexFile {
+    private static final int MAGIC = 0x53424349; // "SBCI"
+    private static final int VERSION = 1;
+    private static final String EXTENSION = ".sbi";
+    private static final String TMP_EXTENSION = ".tmp";
+
+    private PackageIndexFile() {
+    }
+
+    /**
+     * @param directory the directory of the index files
+     * @param entries   the class path entries
+     * @return the index file of the class path in the directory
+     */
+    static Path file(final Path directory, final List<String> entries) {
+        return directory.resolve(new Fingerprint().add(entries).hex() + EXTENSION);
+    }
+
+    /**
+     * Read the index file.
+     *
+     * @param file the index file
+     * @return the JAR files keyed by their paths, or {@code null} if the file does not exist or cannot be read
+     */
+    static Map<String, PackageIndex.Jar> read(final Path file) {
+        final ByteBuffer buffer;
+        try (final var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            return null;
+        }
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            final var jars = new LinkedHashMap<String, PackageIndex.Jar>();
+            final var count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                final var path = string(buffer);
+                final var size = buffer.getLong();
+                final var modified = buffer.getLong();
+                final var classCount = buffer.getInt();
+                final var classes = new ArrayList<ZipDirectory.Entry>(classCount);
+                for (int j = 0; j < classCount; j++) {
+                    classes.add(new ZipDirectory.Entry(string(buffer), buffer.getShort(), buffer.getLong(),
+                            buffer.getLong(), buffer.getLong()));
+                }
+                jars.put(path, new PackageIndex.Jar(path, size, modified, List.copyOf(classes)));
+            }
+            return jars;
+        } catch (RuntimeException e) {
+            // a truncated or otherwise corrupt file is ignored, it will be written again
+            return null;
+        }
+    }
+
+    /**
+     * Write the index file.
+     *
+     * @param file the index file
+     * @param jars the JAR files of the index
+     */
+    static void write(final Path file, final Collection<PackageIndex.Jar> jars) {
+        Path tmp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tmp = Files.createTempFile(file.getParent(), "index", TMP_EXTENSION);
+            try (final var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(jars.size());
+                for (final var jar : jars) {
+                    string(out, jar.path());
+                    out.writeLong(jar.size());
+                    out.writeLong(jar.modified());
+                    out.writeInt(jar.classes().size());
+                    for (final var entry : jar.classes()) {
+                        string(out, entry.name());
+                        out.writeShort(entry.method());
+                        out.writeLong(entry.compressedSize());
+                        out.writeLong(entry.size());
+                        out.writeLong(entry.localOffset());
+                    }
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+        } catch (IOException ignore) {
+            // not being able to write the index is not an error, the next JVM will read the JAR files
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignore) {
+                    // the temporary file is left behind, there is nothing else to do
+                }
+            }
+        }
+    }
+
+    private static String string(final ByteBuffer buffer) {
+        final var bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void string(final DataOutputStream out, final String s) throws IOException {
+        final var bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
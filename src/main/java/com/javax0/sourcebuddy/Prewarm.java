@@ -0,0 +1,118 @@
+package com.javax0.sourcebuddy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Compile a synthetic workload in the background to warm up the Java compiler.
+ * <p>
+ * The first compilation in a JVM is much slower than the later ones, because the classes of the compiler are loaded
+ * and interpreted. The workload uses the language features most templates use: records, enums, inner and anonymous
+ * classes, lambdas, generics, switch expressions and streams, so that the hot paths of the compiler are compiled by
+ * the JIT before the first real compilation. The classes are also loaded, to warm up the class loading.
+ */
+final class Prewarm {
+    /**
+     * The default number of times the workload is compiled.
+     */
+    static final int DEFAULT_ITERATIONS = 5;
+
+    private static CompletableFuture<Duration> running = null;
+
+    private static final String WORKLOAD = """
+            package com.javax0.sourcebuddy.prewarm%d;
+
+            import java.util.*;
+            import java.util.function.*;
+            import java.util.stream.*;
+
+            public class Workload implements Supplier<String> {
+                public record Point<T extends Comparable<T>>(T x, T y) implements Comparable<Point<T>> {
+                    public int compareTo(Point<T> other) {
+                        final int c = x.compareTo(other.x);
+                        return c != 0 ? c : y.compareTo(other.y);
+                    }
+                }
+
+                public enum Color {
+                    RED, GREEN, BLUE;
+
+                    String lower() {
+                        return switch (this) {
+                            case RED -> "red";
+                            case GREEN -> "green";
+                            default -> name().toLowerCase();
+                        };
+                    }
+                }
+
+                public class Inner {
+                    final Map<String, List<Integer>> map = new HashMap<>();
+
+                    <K, V extends Number> Optional<V> first(Map<K, ? extends List<V>> m, K key) {
+                        return Optional.ofNullable(m.get(key)).flatMap(l -> l.stream().findFirst());
+                    }
+                }
+
+                public static class Nested<T> {
+                    private final List<T> items = new ArrayList<>();
+
+                    Nested<T> add(T item) {
+                        items.add(item);
+                        return this;
+                    }
+                }
+
+                public String get() {
+                    final var points = IntStream.range(0, 10)
+                            .mapToObj(i -> new Point<>(i %% 3, i))
+                            .sorted()
+                            .collect(Collectors.toList());
+                    final Function<Point<Integer>, String> f = p -> p.x() + ":" + p.y();
+                    final Runnable r = new Runnable() {
+                        public void run() {
+                            new Nested<String>().add(Color.RED.lower());
+                        }
+                    };
+                    r.run();
+                    final var inner = new Inner();
+                    inner.map.computeIfAbsent("a", k -> new ArrayList<>()).add(1);
+                    return points.stream().map(f).collect(Collectors.joining(",")) + inner.first(inner.map, "a").orElse(0)
+                            + Arrays.stream(Color.values()).map(Color::lower).collect(Collectors.joining());
+                }
+            }
+            """;
+
+    private Prewarm() {
+    }
+
+    /**
+     * Start the warm-up, unless it was already started.
+     *
+     * @param iterations the number of times the workload is compiled
+     * @return the future completing with the duration of the warm-up
+     */
+    static synchronized CompletableFuture<Duration> start(final int iterations) {
+        if (running == null) {
+            final var future = new CompletableFuture<Duration>();
+            final var thread = new Thread(() -> {
+                final var start = System.nanoTime();
+                try {
+                    for (int i = 0; i < iterations; i++) {
+                        final var source = WORKLOAD.formatted(i);
+                        Compiler.java().from("com.javax0.sourcebuddy.prewarm" + i + ".Workload", source)
+                                .compile().load().newInstance("Workload", Supplier.class).get();
+                    }
+                    future.complete(Duration.ofNanos(System.nanoTime() - start));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            }, "sourcebuddy-prewarm");
+            thread.setDaemon(true);
+            thread.start();
+            running = future;
+        }
+        return running;
+    }
+}
@@ -0,0 +1,103 @@
+package com.javax0.sourcebuddy;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The report of a compilation, which compiled only some of the sources, see {@link Compiler#skipUnchanged()} and
+ * {@link Compiler#incremental()}.
+ * <p>
+ * The report lists the sources, which were compiled, each with the reason, and the sources, which were not compiled,
+ * because the class files from the previous compilation could be used.
+ */
+public final class Recompilation {
+
+    /**
+     * The reason a source was compiled.
+     */
+    public enum Reason {
+        /**
+         * There was no previous compilation.
+         */
+        FIRST,
+        /**
+         * The source was not compiled before.
+         */
+        NEW,
+        /**
+         * The source code changed.
+         */
+        CHANGED,
+        /**
+         * A source compiled the last time was removed. The class files of the removed source might be used by any
+         * other source.
+         */
+        REMOVED,
+        /**
+         * The source references a class of a source whose API changed.
+         */
+        DEPENDENT,
+        /**
+         * The API of a source changed, and the compiler does not track the dependencies.
+         */
+        API_CHANGED,
+        /**
+         * The value of a constant changed. The constants are copied into the classes using them, without a reference
+         * to the class defining them, therefore all the sources are compiled.
+         */
+        CONSTANT_CHANGED
+    }
+
+    /**
+     * A compiled source.
+     *
+     * @param name   the binary name of the source
+     * @param reason the reason the source was compiled
+     * @param cause  the binary name of the source causing the compilation, when the reason is
+     *               {@link Reason#REMOVED}, {@link Reason#DEPENDENT}, {@link Reason#API_CHANGED} or
+     *               {@link Reason#CONSTANT_CHANGED}, {@code null} otherwise
+     */
+    public record Unit(String name, Reason reason, String cause) {
+        @Override
+        public String toString() {
+            return switch (reason) {
+                case FIRST -> name + " (first compilation)";
+                case NEW -> name + " (new)";
+                case CHANGED -> name + " (changed)";
+                case REMOVED -> name + " (" + cause + " was removed)";
+                case DEPENDENT -> name + " (depends on " + cause + ", whose API changed)";
+                case API_CHANGED -> name + " (the API of " + cause + " changed)";
+                case CONSTANT_CHANGED -> name + " (a constant in " + cause + " changed)";
+            };
+        }
+    }
+
+    private final List<Unit> compiled;
+    private final Set<String> reused;
+
+    Recompilation(final List<Unit> compiled, final Set<String> reused) {
+        this.compiled = List.copyOf(compiled);
+        this.reused = Set.copyOf(reused);
+    }
+
+    /**
+     * @return the sources, which were compiled, in the order they were selected for compilation
+     */
+    public List<Unit> compiled() {
+        return compiled;
+    }
+
+    /**
+     * @return the binary names of the sources, which were not compiled, because their class files were reused
+     */
+    public Set<String> reused() {
+        return reused;
+    }
+
+    @Override
+    public String toString() {
+        return "compiled: " + compiled.stream().map(Unit::toString).collect(Collectors.joining(", "))
+                + "\nreused: " + reused.stream().sorted().collect(Collectors.joining(", "));
+    }
+}
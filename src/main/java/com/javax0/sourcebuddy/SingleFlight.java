@@ -0,0 +1,91 @@
+package com.javax0.sourcebuddy;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Coalesce the concurrent compilations that have the same fingerprint.
+ * <p>
+ * The first thread starting a compilation with a given fingerprint runs the compilation. The other threads
+ * requesting the same compilation while it is in flight wait for the result and share it. The shared result is
+ * either the map of the compiled byte codes or the {@link Compiler.CompileException} thrown by the compilation.
+ * When the leading thread tells that its result cannot be shared, because the compilation created something, which is
+ * not in the byte codes, the waiting threads run the compilation themselves.
+ * <p>
+ * The result is not retained after the compilation has finished. A thread starting the same compilation later will
+ * run the compiler again, unless the result is found in some cache.
+ */
+final class SingleFlight {
+
+    private static final Map<String, CompletableFuture<Map<String, byte[]>>> inFlight = new ConcurrentHashMap<>();
+
+    private SingleFlight() {
+    }
+
+    /**
+     * The compilation that runs in the leading thread.
+     */
+    interface Compilation {
+        Map<String, byte[]> compile() throws Compiler.CompileException;
+    }
+
+    /**
+     * The result of a coalesced compilation.
+     *
+     * @param classes the map of the binary names to the compiled byte codes
+     * @param shared  {@code true} if the compilation ran in another thread, and the byte codes are not in the file
+     *                manager of the caller
+     */
+    record Result(Map<String, byte[]> classes, boolean shared) {
+    }
+
+    /**
+     * Run the compilation, or wait for the result of the same compilation running in another thread.
+     *
+     * @param key         the fingerprint of the compilation
+     * @param compilation the compilation to run if there is no compilation in flight with the same fingerprint
+     * @param shareable   tells after the compilation ran in this thread if the byte codes are the whole result, which
+     *                    can be shared with the waiting threads
+     * @return the result of the compilation
+     * @throws Compiler.CompileException if the compilation, either run by this thread or by another one, failed
+     */
+    static Result compile(final String key, final Compilation compilation, final BooleanSupplier shareable) throws Compiler.CompileException {
+        final var future = new CompletableFuture<Map<String, byte[]>>();
+        final var running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            final var classes = await(running);
+            return classes == null ? new Result(compilation.compile(), false) : new Result(classes, true);
+        }
+        try {
+            final var classes = compilation.compile();
+            future.complete(shareable.getAsBoolean() ? classes : null);
+            return new Result(classes, false);
+        } catch (Compiler.CompileException | RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private static Map<String, byte[]> await(final CompletableFuture<Map<String, byte[]>> running) throws Compiler.CompileException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            final var cause = e.getCause();
+            if (cause instanceof Compiler.CompileException) {
+                throw new Compiler.CompileException(cause.getMessage());
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
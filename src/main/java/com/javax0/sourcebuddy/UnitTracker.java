@@ -0,0 +1,312 @@
+package com.javax0.sourcebuddy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keep track of the compilation units compiled by a compiler to skip the unchanged units in the next compilation.
+ * <p>
+ * The tracker records the hash of the source code of every unit, the fingerprint of the API of the classes compiled
+ * from the unit, and the classes these classes reference. When the compiler compiles again, only the units, which
+ * changed, are passed to the Java compiler. The class files of the unchanged units are presented to the Java compiler
+ * on the class path, so it does not need to parse and analyze them again.
+ * <p>
+ * When the API of a changed unit changes, the unchanged units may have to be compiled again, because they may use
+ * the changed API. If the tracker follows the dependencies, the units referencing a class of the changed unit are
+ * compiled, otherwise all the units are compiled. The API of a class includes the inherited members, therefore the
+ * classes extending or implementing a changed class, directly or indirectly, are also considered changed, and the
+ * units referencing them are compiled as well. When the value of a constant changes, all the units are compiled,
+ * because the class files of the units using the constant contain the value and not a reference to the class.
+ * <p>
+ * The compilation is done in rounds. The compiler compiles the units {@link #select(List, InMemoryJavaFileManager)
+ * selected}, and asks the tracker to {@link #widen(List, List, InMemoryJavaFileManager) widen} the selection, until
+ * the selection does not change any more.
+ */
+final class UnitTracker {
+
+    /**
+     * The state of a unit after the last successful compilation.
+     *
+     * @param hash       the hash of the source code
+     * @param api        the fingerprint of the API of the classes compiled from the unit
+     * @param constants  the fingerprint of the constant values of the classes compiled from the unit
+     * @param classes    the binary names of the classes compiled from the unit
+     * @param references the binary names of the classes referenced by the classes compiled from the unit
+     * @param supertypes the binary names of the direct supertypes of the classes compiled from the unit
+     */
+    private record Unit(String hash, String api, String constants, Set<String> classes, Set<String> references,
+                        Set<String> supertypes) {
+        private static final Unit EMPTY = new Unit("", "", "", Set.of(), Set.of(), Set.of());
+    }
+
+    private final boolean dependencies;
+    private final Map<String, Unit> units = new HashMap<>();
+    private final Map<String, Recompilation.Unit> reasons = new LinkedHashMap<>();
+    private Recompilation report = null;
+
+    /**
+     * @param dependencies {@code true} to compile only the dependent units when the API of a unit changes,
+     *                     {@code false} to compile all the units
+     */
+    UnitTracker(final boolean dependencies) {
+        this.dependencies = dependencies;
+    }
+
+    /**
+     * Select the sources that have to be compiled first. The class files of the other sources are put into the class
+     * path files of the file manager, the class files of the selected sources are removed from the file manager.
+     *
+     * @param sources the sources of the compiler
+     * @param manager the file manager of the compiler
+     * @return the sources to compile, it is the whole list if there is no previous compilation, or a source was
+     * removed
+     */
+    List<StringJavaSource> select(final List<StringJavaSource> sources, final InMemoryJavaFileManager manager) {
+        reasons.clear();
+        report = null;
+        final var names = new HashSet<String>();
+        sources.forEach(source -> names.add(source.binaryName));
+        if (units.isEmpty()) {
+            return all(sources, manager, Recompilation.Reason.FIRST, null);
+        }
+        for (final var name : units.keySet()) {
+            if (!names.contains(name)) {
+                return all(sources, manager, Recompilation.Reason.REMOVED, name);
+            }
+        }
+        final var changed = new ArrayList<StringJavaSource>();
+        for (final var source : sources) {
+            final var unit = units.get(source.binaryName);
+            if (unit == null) {
+                reason(source, Recompilation.Reason.NEW, null);
+                changed.add(source);
+            } else if (!unit.hash.equals(hash(source))) {
+                reason(source, Recompilation.Reason.CHANGED, null);
+                changed.add(source);
+            }
+        }
+        return prepare(changed, sources, manager);
+    }
+
+    /**
+     * Check the units compiled in the last round, and widen the selection if their API changed.
+     *
+     * @param selected the sources compiled in the last round
+     * @param sources  the sources of the compiler
+     * @param manager  the file manager of the compiler
+     * @return the sources to compile in the next round, or {@code selected} if no more compilation is needed
+     */
+    List<StringJavaSource> widen(final List<StringJavaSource> selected,
+                                 final List<StringJavaSource> sources,
+                                 final InMemoryJavaFileManager manager) {
+        if (selected.size() == sources.size()) {
+            return selected;
+        }
+        final var compiled = summaries(selected, manager);
+        // the classes with changed API mapped to the binary name of the source, which caused the change
+        final var changed = new HashMap<String, String>();
+        for (final var source : selected) {
+            final var before = units.get(source.binaryName);
+            if (before == null) {
+                continue;
+            }
+            final var after = compiled.getOrDefault(source.binaryName, Unit.EMPTY);
+            if (!before.constants.equals(after.constants)) {
+                return all(sources, manager, Recompilation.Reason.CONSTANT_CHANGED, source.binaryName);
+            }
+            if (!before.api.equals(after.api)) {
+                if (!dependencies) {
+                    return all(sources, manager, Recompilation.Reason.API_CHANGED, source.binaryName);
+                }
+                before.classes.forEach(name -> changed.putIfAbsent(name, source.binaryName));
+                after.classes.forEach(name -> changed.putIfAbsent(name, source.binaryName));
+            }
+        }
+        addSubtypes(changed, sources, compiled);
+        final var wider = new ArrayList<>(selected);
+        final var names = new HashSet<String>();
+        selected.forEach(source -> names.add(source.binaryName));
+        for (final var other : sources) {
+            final var cause = names.contains(other.binaryName) ? null : referenced(units.get(other.binaryName), changed);
+            if (cause != null) {
+                names.add(other.binaryName);
+                reason(other, Recompilation.Reason.DEPENDENT, cause);
+                wider.add(other);
+            }
+        }
+        return wider.size() == selected.size() ? selected : prepare(wider, sources, manager);
+    }
+
+    /**
+     * Add the classes extending or implementing the changed classes, directly or indirectly, to the changed classes.
+     * The members they inherit are part of their API, even if their class files did not change.
+     *
+     * @param changed  the changed classes mapped to the sources causing the change, extended by the method
+     * @param sources  the sources of the compiler
+     * @param compiled the summaries of the units compiled in the last round
+     */
+    private void addSubtypes(final Map<String, String> changed,
+                             final List<StringJavaSource> sources,
+                             final Map<String, Unit> compiled) {
+        boolean added;
+        do {
+            added = false;
+            for (final var source : sources) {
+                final var unit = compiled.getOrDefault(source.binaryName, units.get(source.binaryName));
+                if (unit == null) {
+                    continue;
+                }
+                final var cause = unit.supertypes.stream().map(changed::get).filter(Objects::nonNull).findFirst();
+                if (cause.isPresent()) {
+                    for (final var name : unit.classes) {
+                        added |= changed.putIfAbsent(name, cause.get()) == null;
+                    }
+                }
+            }
+        } while (added);
+    }
+
+    /**
+     * Record the state of the units after a successful compilation.
+     *
+     * @param selected the sources compiled in the last round
+     * @param sources  the sources of the compiler
+     * @param manager  the file manager of the compiler
+     */
+    void update(final List<StringJavaSource> selected,
+                final List<StringJavaSource> sources,
+                final InMemoryJavaFileManager manager) {
+        manager.getClassPathFiles().clear();
+        if (selected.size() == sources.size()) {
+            units.clear();
+        }
+        final var compiled = summaries(selected, manager);
+        for (final var source : selected) {
+            final var unit = compiled.getOrDefault(source.binaryName, Unit.EMPTY);
+            units.put(source.binaryName, new Unit(hash(source), unit.api, unit.constants, unit.classes, unit.references,
+                    unit.supertypes));
+        }
+        final var reused = new HashSet<>(units.keySet());
+        reused.removeAll(reasons.keySet());
+        report = new Recompilation(new ArrayList<>(reasons.values()), reused);
+    }
+
+    /**
+     * Forget all the units. The next compilation will compile all the sources.
+     */
+    void clear() {
+        units.clear();
+        reasons.clear();
+        report = null;
+    }
+
+    /**
+     * @return the report of the last successful compilation, or {@code null} if there is none
+     */
+    Recompilation report() {
+        return report;
+    }
+
+    private List<StringJavaSource> all(final List<StringJavaSource> sources,
+                                       final InMemoryJavaFileManager manager,
+                                       final Recompilation.Reason reason,
+                                       final String cause) {
+        for (final var source : sources) {
+            reason(source, reason, cause);
+        }
+        return prepare(sources, sources, manager);
+    }
+
+    private void reason(final StringJavaSource source, final Recompilation.Reason reason, final String cause) {
+        reasons.putIfAbsent(source.binaryName, new Recompilation.Unit(source.binaryName, reason, cause));
+    }
+
+    /**
+     * Remove the class files of the selected sources from the file manager, and put the class files of the other
+     * sources into the class path files.
+     */
+    private static List<StringJavaSource> prepare(final List<StringJavaSource> selected,
+                                                  final List<StringJavaSource> sources,
+                                                  final InMemoryJavaFileManager manager) {
+        manager.getClassPathFiles().clear();
+        final var names = new HashSet<String>();
+        sources.forEach(source -> names.add(source.binaryName));
+        final var selectedNames = new HashSet<String>();
+        selected.forEach(source -> selectedNames.add(source.binaryName));
+        for (final var e : new ArrayList<>(manager.getOrigins().entrySet())) {
+            if (selectedNames.contains(e.getValue())) {
+                manager.getClassFileObjectsMap().remove(e.getKey());
+                manager.getOrigins().remove(e.getKey());
+            } else if (names.contains(e.getValue()) && selected.size() != sources.size()) {
+                manager.getClassPathFiles().put(e.getKey(), manager.getClassFileObjectsMap().get(e.getKey()));
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * @param unit    the unit, or {@code null} if it was not compiled yet
+     * @param changed the changed classes mapped to the sources causing the change
+     * @return the source causing the change of a class the unit references, or {@code null} if the unit does not
+     * reference any changed class
+     */
+    private static String referenced(final Unit unit, final Map<String, String> changed) {
+        if (unit == null) {
+            return null;
+        }
+        for (final var reference : unit.references) {
+            if (changed.containsKey(reference)) {
+                return changed.get(reference);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param sources the sources to summarize
+     * @param manager the file manager of the compiler
+     * @return the summary of the classes compiled from the sources keyed by the binary names of the sources. The
+     * hashes of the units are not calculated.
+     */
+    private static Map<String, Unit> summaries(final List<StringJavaSource> sources, final InMemoryJavaFileManager manager) {
+        final var names = new HashSet<String>();
+        sources.forEach(source -> names.add(source.binaryName));
+        final var perUnit = new HashMap<String, TreeMap<String, ByteCodeGouger.Summary>>();
+        for (final var e : manager.getOrigins().entrySet()) {
+            final var file = manager.getClassFileObjectsMap().get(e.getKey());
+            if (file != null && names.contains(e.getValue())) {
+                perUnit.computeIfAbsent(e.getValue(), k -> new TreeMap<>())
+                        .put(e.getKey(), ByteCodeGouger.summary(file.getByteArray()));
+            }
+        }
+        final var summaries = new HashMap<String, Unit>();
+        for (final var e : perUnit.entrySet()) {
+            final var api = new Fingerprint();
+            final var constants = new Fingerprint();
+            final var references = new HashSet<String>();
+            final var supertypes = new HashSet<String>();
+            e.getValue().forEach((name, summary) -> {
+                api.add(name).add(summary.api());
+                constants.add(name).add(summary.constants());
+                references.addAll(summary.references());
+                supertypes.addAll(summary.supertypes());
+            });
+            references.removeAll(e.getValue().keySet());
+            supertypes.removeAll(e.getValue().keySet());
+            summaries.put(e.getKey(), new Unit("", api.hex(), constants.hex(), Set.copyOf(e.getValue().keySet()),
+                    Set.copyOf(references), Set.copyOf(supertypes)));
+        }
+        return summaries;
+    }
+
+    private static String hash(final StringJavaSource source) {
+        return new Fingerprint().add(source.code).hex();
+    }
+}
@@ -0,0 +1,74 @@
+package com.javax0.sourcebuddy;
+
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The result of the syntax check of the sources, see {@link Compiler#validate()}.
+ * <p>
+ * The sources are only parsed, the names are not resolved and the types are not checked. A valid result means that
+ * the sources are syntactically correct, but they may still fail to compile.
+ */
+public final class Validation {
+
+    /**
+     * A problem reported by the parser.
+     *
+     * @param source  the binary name of the source, or {@code null} if the problem is not related to a source
+     * @param kind    the kind of the problem, usually {@link Diagnostic.Kind#ERROR}
+     * @param line    the line number in the source starting with 1, or {@link Diagnostic#NOPOS}
+     * @param column  the column number in the line starting with 1, or {@link Diagnostic#NOPOS}
+     * @param start   the character offset of the start of the problem in the source, or {@link Diagnostic#NOPOS}
+     * @param end     the character offset of the end of the problem in the source, or {@link Diagnostic#NOPOS}
+     * @param code    the code of the diagnostic message, like {@code compiler.err.expected}
+     * @param message the message in the default locale
+     */
+    public record Problem(String source, Diagnostic.Kind kind, long line, long column, long start, long end, String code,
+                          String message) {
+        @Override
+        public String toString() {
+            return (source == null ? "" : source + ":" + line + ":" + column + ": ")
+                    + kind.toString().toLowerCase() + ": " + message;
+        }
+    }
+
+    private final List<Problem> problems;
+
+    Validation(final List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+        this.problems = diagnostics.stream().map(Validation::problem).toList();
+    }
+
+    private static Problem problem(final Diagnostic<? extends JavaFileObject> diagnostic) {
+        final String source;
+        if (diagnostic.getSource() instanceof StringJavaSource javaSource) {
+            source = javaSource.binaryName;
+        } else if (diagnostic.getSource() != null) {
+            source = diagnostic.getSource().getName();
+        } else {
+            source = null;
+        }
+        return new Problem(source, diagnostic.getKind(), diagnostic.getLineNumber(), diagnostic.getColumnNumber(),
+                diagnostic.getStartPosition(), diagnostic.getEndPosition(), diagnostic.getCode(), diagnostic.getMessage(null));
+    }
+
+    /**
+     * @return {@code true} if the parser did not report any error
+     */
+    public boolean isValid() {
+        return problems.stream().noneMatch(problem -> problem.kind == Diagnostic.Kind.ERROR);
+    }
+
+    /**
+     * @return the problems in the order the parser reported them, including the warnings
+     */
+    public List<Problem> problems() {
+        return problems;
+    }
+
+    @Override
+    public String toString() {
+        return problems.stream().map(Problem::toString).collect(Collectors.joining("\n"));
+    }
+}
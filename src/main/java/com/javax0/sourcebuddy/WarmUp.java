@@ -0,0 +1,144 @@
+package com.javax0.sourcebuddy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background warm-up of a compiled class store from a {@link HotManifest}.
+ * <p>
+ * The warm-up repeats the most often requested compilations of the manifest using the store. When the store
+ * already has an entry, for example in a persistent {@link DiskCache}, the entry is only loaded, which also fills the
+ * faster tiers of a {@link CompiledClassStore#tiered(CompiledClassStore...) tiered} store. When the store does not
+ * have the entry, the sources are compiled, and the result is stored.
+ * <p>
+ * The compilations run on daemon threads, and they do not prevent the JVM from exiting. The progress can be queried
+ * calling {@link #completed()} and {@link #failed()}, and a readiness check can wait for the end calling
+ * {@link #await(Duration)} or using the future returned by {@link #done()}. A failing compilation does not stop the
+ * warm-up, it is counted by {@link #failed()}.
+ */
+public final class WarmUp {
+    private final int total;
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final CompletableFuture<WarmUp> done;
+    private final long started = System.nanoTime();
+    private volatile long finished = 0;
+
+    /**
+     * Start the warm-up using as many threads as many processors there are.
+     *
+     * @param manifest the manifest recorded earlier
+     * @param top      the maximum number of the entries to warm up, the most often requested ones are selected
+     * @param store    the store to fill
+     * @return the warm-up object to follow the progress
+     */
+    public static WarmUp start(final HotManifest manifest, final int top, final CompiledClassStore store) {
+        return start(manifest, top, store, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Start the warm-up.
+     *
+     * @param manifest the manifest recorded earlier
+     * @param top      the maximum number of the entries to warm up, the most often requested ones are selected
+     * @param store    the store to fill
+     * @param threads  the number of the threads running the compilations in parallel
+     * @return the warm-up object to follow the progress
+     */
+    public static WarmUp start(final HotManifest manifest, final int top, final CompiledClassStore store, final int threads) {
+        return new WarmUp(manifest, top, store, threads);
+    }
+
+    private WarmUp(final HotManifest manifest, final int top, final CompiledClassStore store, final int threads) {
+        final var entries = manifest.top(top);
+        total = entries.size();
+        final var executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, total)), r -> {
+            final var thread = new Thread(r, "sourcebuddy-warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final var futures = new ArrayList<CompletableFuture<Void>>();
+        for (final var entry : entries) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    entry.compile(store);
+                } catch (Compiler.CompileException | RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+                completed.incrementAndGet();
+            }, executor));
+        }
+        executor.shutdown();
+        done = CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(v -> {
+            finished = System.nanoTime();
+            return this;
+        });
+    }
+
+    /**
+     * @return the number of the entries to warm up
+     */
+    public int total() {
+        return total;
+    }
+
+    /**
+     * @return the number of the entries already processed, including the failed ones
+     */
+    public int completed() {
+        return completed.get();
+    }
+
+    /**
+     * @return the number of the entries, which could not be compiled
+     */
+    public int failed() {
+        return failed.get();
+    }
+
+    /**
+     * @return {@code true} if all the entries are processed
+     */
+    public boolean isDone() {
+        return done.isDone();
+    }
+
+    /**
+     * @return a future completed when all the entries are processed
+     */
+    public CompletableFuture<WarmUp> done() {
+        return done;
+    }
+
+    /**
+     * Wait for the warm-up to finish.
+     *
+     * @param timeout the maximum time to wait
+     * @return {@code true} if the warm-up finished, {@code false} if the timeout elapsed
+     * @throws InterruptedException if the waiting thread was interrupted
+     */
+    public boolean await(final Duration timeout) throws InterruptedException {
+        try {
+            done.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * @return the time the warm-up took, or the time elapsed since the start if it is still running
+     */
+    public Duration duration() {
+        final var end = finished == 0 ? System.nanoTime() : finished;
+        return Duration.ofNanos(end - started);
+    }
+}
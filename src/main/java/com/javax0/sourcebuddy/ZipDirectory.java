@@ -0,0 +1,205 @@
+package com.javax0.sourcebuddy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * The central directory of a ZIP (JAR) file read from a memory mapped file.
+ * <p>
+ * The file is mapped into the memory once, and the central directory is parsed directly from the mapped buffer. The
+ * content of an entry is read from the same buffer when it is needed, inflating it if it is compressed. No
+ * {@link java.util.zip.ZipFile} is opened, and nothing is read from the file other than the central directory until an
+ * entry is opened.
+ */
+final class ZipDirectory {
+    private static final int END = 0x06054b50;
+    private static final int END64_LOCATOR = 0x07064b50;
+    private static final int END64 = 0x06064b50;
+    private static final int CENTRAL = 0x02014b50;
+    private static final int LOCAL = 0x04034b50;
+    private static final long MAX32 = 0xFFFFFFFFL;
+
+    /**
+     * An entry of the central directory.
+     *
+     * @param name             the name of the entry
+     * @param method           the compression method, 0 stored, 8 deflated
+     * @param compressedSize   the size of the compressed data
+     * @param size             the size of the uncompressed data
+     * @param localOffset      the offset of the local header of the entry in the file
+     */
+    record Entry(String name, int method, long compressedSize, long size, long localOffset) {
+    }
+
+    private final ByteBuffer buffer;
+    private final List<Entry> entries;
+
+    private ZipDirectory(final ByteBuffer buffer, final List<Entry> entries) {
+        this.buffer = buffer;
+        this.entries = entries;
+    }
+
+    /**
+     * Map the file and read the central directory.
+     *
+     * @param file the ZIP or JAR file
+     * @return the directory
+     * @throws IOException if the file cannot be read or it is not a ZIP file
+     */
+    static ZipDirectory read(final Path file) throws IOException {
+        final var buffer = map(file);
+        final var end = findEnd(buffer, file);
+        long count = Short.toUnsignedInt(buffer.getShort(end + 10));
+        long offset = Integer.toUnsignedLong(buffer.getInt(end + 16));
+        if ((count == 0xFFFF || offset == MAX32) && end >= 20 && buffer.getInt(end - 20) == END64_LOCATOR) {
+            final var end64 = (int) buffer.getLong(end - 20 + 8);
+            if (buffer.getInt(end64) != END64) {
+                throw new ZipException("Invalid ZIP64 end of central directory in " + file);
+            }
+            count = buffer.getLong(end64 + 32);
+            offset = buffer.getLong(end64 + 48);
+        }
+        final var entries = new ArrayList<Entry>((int) Math.min(count, 1 << 16));
+        var position = (int) offset;
+        for (long i = 0; i < count; i++) {
+            if (buffer.getInt(position) != CENTRAL) {
+                throw new ZipException("Invalid central directory entry in " + file);
+            }
+            final var method = Short.toUnsignedInt(buffer.getShort(position + 10));
+            var compressedSize = Integer.toUnsignedLong(buffer.getInt(position + 20));
+            var size = Integer.toUnsignedLong(buffer.getInt(position + 24));
+            final var nameLength = Short.toUnsignedInt(buffer.getShort(position + 28));
+            final var extraLength = Short.toUnsignedInt(buffer.getShort(position + 30));
+            final var commentLength = Short.toUnsignedInt(buffer.getShort(position + 32));
+            var localOffset = Integer.toUnsignedLong(buffer.getInt(position + 42));
+            final var nameBytes = new byte[nameLength];
+            buffer.get(position + 46, nameBytes);
+            if (size == MAX32 || compressedSize == MAX32 || localOffset == MAX32) {
+                // the ZIP64 extra field contains the values in this order, only those, which did not fit
+                var extra = position + 46 + nameLength;
+                final var extraEnd = extra + extraLength;
+                while (extra + 4 <= extraEnd) {
+                    final var id = Short.toUnsignedInt(buffer.getShort(extra));
+                    final var length = Short.toUnsignedInt(buffer.getShort(extra + 2));
+                    if (id == 0x0001) {
+                        var field = extra + 4;
+                        if (size == MAX32) {
+                            size = buffer.getLong(field);
+                            field += 8;
+                        }
+                        if (compressedSize == MAX32) {
+                            compressedSize = buffer.getLong(field);
+                            field += 8;
+                        }
+                        if (localOffset == MAX32) {
+                            localOffset = buffer.getLong(field);
+                        }
+                        break;
+                    }
+                    extra += 4 + length;
+                }
+            }
+            entries.add(new Entry(new String(nameBytes, StandardCharsets.UTF_8), method, compressedSize, size, localOffset));
+            position += 46 + nameLength + extraLength + commentLength;
+        }
+        return new ZipDirectory(buffer, entries);
+    }
+
+    /**
+     * Map the file without reading the central directory. It is used when the entries are already known, for example
+     * from a persisted index, and only the content of the entries is read.
+     *
+     * @param file the ZIP or JAR file
+     * @return the directory with no entries listed
+     * @throws IOException if the file cannot be mapped
+     */
+    static ZipDirectory mapped(final Path file) throws IOException {
+        return new ZipDirectory(map(file), List.of());
+    }
+
+    private static ByteBuffer map(final Path file) throws IOException {
+        try (final var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * @return the entries of the central directory in the order they are in the file
+     */
+    List<Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * Read the content of an entry.
+     *
+     * @param entry the entry of this directory
+     * @return the uncompressed content
+     * @throws IOException if the entry is corrupt or uses an unsupported compression method
+     */
+    byte[] read(final Entry entry) throws IOException {
+        final var local = (int) entry.localOffset;
+        if (buffer.getInt(local) != LOCAL) {
+            throw new ZipException("Invalid local header for " + entry.name);
+        }
+        final var start = local + 30 + Short.toUnsignedInt(buffer.getShort(local + 26))
+                + Short.toUnsignedInt(buffer.getShort(local + 28));
+        final var data = buffer.slice(start, (int) entry.compressedSize);
+        final var content = new byte[(int) entry.size];
+        switch (entry.method) {
+            case 0 -> data.get(content);
+            case 8 -> {
+                final var inflater = new Inflater(true);
+                try {
+                    inflater.setInput(data);
+                    var n = 0;
+                    while (n < content.length && !inflater.finished()) {
+                        final var inflated = inflater.inflate(content, n, content.length - n);
+                        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                            throw new ZipException("Truncated entry " + entry.name);
+                        }
+                        n += inflated;
+                    }
+                } catch (DataFormatException e) {
+                    throw new ZipException("Corrupt entry " + entry.name + ": " + e.getMessage());
+                } finally {
+                    inflater.end();
+                }
+            }
+            default -> throw new ZipException("Unsupported compression method " + entry.method + " of " + entry.name);
+        }
+        return content;
+    }
+
+    /**
+     * @param entry the entry of this directory
+     * @return the input stream reading the uncompressed content
+     * @throws IOException if the entry cannot be read
+     */
+    InputStream open(final Entry entry) throws IOException {
+        return new ByteArrayInputStream(read(entry));
+    }
+
+    private static int findEnd(final ByteBuffer buffer, final Path file) throws ZipException {
+        final var last = buffer.limit() - 22;
+        final var first = Math.max(0, last - 0xFFFF);
+        for (int i = last; i >= first; i--) {
+            if (buffer.getInt(i) == END) {
+                return i;
+            }
+        }
+        throw new ZipException("No end of central directory in " + file);
+    }
+}
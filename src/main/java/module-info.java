@@ -1,4 +1,5 @@
 module com.javax0.sourcebuddy {
     requires java.compiler;
+    requires static jdk.compiler;
     exports com.javax0.sourcebuddy;
 }
\ No newline at end of file
@@ -347,6 +347,44 @@ public class CompilerTest {
         Assertions.assertEquals(Set.of("A.A"), loaded.streamFailed().collect(Collectors.toSet()));
     }
 
+    @Test
+    @DisplayName("Classes can be loaded from byte codes stored off-heap")
+    void testOffHeapLoading() throws Exception {
+        final var loaded = Compiler.java()
+                .from("package A;public class A { public class Inner {} public Object inner(){ return new Inner(); } }")
+                .from("package A;public class H { public String hi(){ return \"hi\"; } }")
+                .hidden()
+                .compile()
+                .load(Compiler.LoaderOption.OFF_HEAP);
+        Assertions.assertTrue(loaded.fullyLoaded());
+        final var a = loaded.newInstance("A.A");
+        Assertions.assertEquals("A.A$Inner", a.getClass().getMethod("inner").invoke(a).getClass().getName());
+        final var h = loaded.newInstance("A.H");
+        Assertions.assertNull(h.getClass().getCanonicalName());
+        Assertions.assertEquals("hi", h.getClass().getMethod("hi").invoke(h));
+    }
+
+    @Test
+    @DisplayName("The off-heap byte codes are not kept on the heap by the compiler and use small chunks")
+    void testOffHeapMemory() throws Exception {
+        final var compiler = (Compiler) Compiler.java().from("package A;public class Small {}").compile();
+        compiler.load(Compiler.LoaderOption.OFF_HEAP);
+        final var managerField = Compiler.class.getDeclaredField("manager");
+        managerField.setAccessible(true);
+        final var file = ((InMemoryJavaFileManager) managerField.get(compiler)).getClassFileObjectsMap().get("A.Small");
+        final var buffer = file.getByteBuffer();
+        Assertions.assertNotNull(buffer);
+        Assertions.assertTrue(buffer.isDirect());
+        Assertions.assertEquals(buffer.remaining(), buffer.capacity());
+        Assertions.assertEquals("A.Small", Compiler.getBinaryName(file.getByteArray()));
+
+        final var arena = new ByteCodeArena();
+        final var first = arena.put(new byte[100]);
+        Assertions.assertEquals(100, first.capacity());
+        Assertions.assertEquals(200, arena.put(new byte[150]).capacity());
+        Assertions.assertEquals(2 * ByteCodeArena.MAX_CHUNK_SIZE, arena.put(new byte[2 * ByteCodeArena.MAX_CHUNK_SIZE]).capacity());
+    }
+
     @Test
     @DisplayName("Load precompiled classes from a JAR file")
     void loadPrecompiledFromJar() throws Exception {
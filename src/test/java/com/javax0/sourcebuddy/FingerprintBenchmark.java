@@ -0,0 +1,39 @@
+package com.javax0.sourcebuddy;
+
+import java.util.List;
+
+/**
+ * Measure the time of the normalized fingerprint against the raw one on a generated source with many comments.
+ * <p>
+ * This is not a test, it does not run in the build. Run it from the IDE or from the command line with the test
+ * classes on the class path:
+ *
+ * <pre>
+ *     java -cp target/classes:target/test-classes com.javax0.sourcebuddy.FingerprintBenchmark
+ * </pre>
+ */
+public class FingerprintBenchmark {
+
+    private static final int WARM_UP = 2000;
+    private static final int ROUNDS = 1000;
+
+    public static void main(String[] args) {
+        final var sb = new StringBuilder("package a;\n/* generated at 2024-01-01T12:00:00 */\npublic class B {\n");
+        for (int i = 0; i < 300; i++) {
+            sb.append("    // method ").append(i).append("\n");
+            sb.append("    public int m").append(i).append("(int x) { return x * ").append(i).append(" + \"s\".length(); }\n");
+        }
+        final var sources = List.of(new StringJavaSource("a.B", sb.append("}\n").toString()));
+        for (final var mode : FingerprintMode.values()) {
+            for (int i = 0; i < WARM_UP; i++) {
+                new Fingerprint().addSources(sources, mode).hex();
+            }
+            final var start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                new Fingerprint().addSources(sources, mode).hex();
+            }
+            final var micros = (System.nanoTime() - start) / ROUNDS / 1000.0;
+            System.out.printf("%s fingerprint of %d characters: %.1f us%n", mode, sources.get(0).code.length(), micros);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+public class TestBundle {
+
+    private static final String SOURCE = """
+            package com.javax0.sourcebuddy.bundled;
+            public class Bundled {
+                public static class Inner {}
+                public String hello(){ return "hello " + new Inner().getClass().getSimpleName(); }
+            }
+            """;
+
+    private static final String HIDDEN = """
+            package com.javax0.sourcebuddy.bundled;
+            public class Hidden {
+                public String hello(){ return "hidden"; }
+            }
+            """;
+
+    @Test
+    @DisplayName("A bundle saved from a compilation loads the same classes without compilation")
+    void saveAndLoadBundle() throws Exception {
+        final var file = Paths.get("./target/bundle-test.sbb");
+        Files.createDirectories(file.getParent());
+        final var compiled = Compiler.java().from(SOURCE).from(HIDDEN).hidden().compile();
+        compiled.saveBundle(file);
+
+        final var loaded = Compiler.java().bundle(file).load();
+        Assertions.assertEquals(3, loaded.stream().count());
+        final var bundled = loaded.get("Bundled");
+        final var object = bundled.getConstructor().newInstance();
+        Assertions.assertEquals("hello Inner", bundled.getMethod("hello").invoke(object));
+        final var hidden = loaded.get("Hidden");
+        Assertions.assertTrue(hidden.isHidden());
+        Assertions.assertEquals("hidden", hidden.getMethod("hello").invoke(hidden.getConstructor().newInstance()));
+    }
+
+    @Test
+    @DisplayName("The byte codes in the bundle are the same as the compiled ones")
+    void bundleByteCodes() throws Exception {
+        final var file = Paths.get("./target/bundle-test-bytes.sbb");
+        Files.createDirectories(file.getParent());
+        final var compiled = Compiler.java().from(SOURCE).compile();
+        compiled.saveBundle(file);
+        final var expected = compiled.stream().map(Compiler::getBinaryName).sorted().toList();
+        final var actual = Compiler.java().bundle(file).stream().map(Compiler::getBinaryName).sorted().toList();
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("A file, which is not a bundle, is rejected")
+    void notABundle() throws Exception {
+        final var file = Paths.get("./target/not-a-bundle.sbb");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "this is not a bundle");
+        Assertions.assertThrows(IOException.class, () -> Compiler.java().bundle(file));
+    }
+
+    @Test
+    @DisplayName("A bundle with an unknown class option is rejected as corrupt")
+    void unknownClassOption() throws Exception {
+        final var file = Paths.get("./target/unknown-option.sbb");
+        Files.createDirectories(file.getParent());
+        final var source = new StringJavaSource("com.javax0.sourcebuddy.bundled.Hidden", "");
+        source.classOptions = new MethodHandles.Lookup.ClassOption[]{MethodHandles.Lookup.ClassOption.NESTMATE};
+        Bundle.write(file, Map.of(), List.of(source));
+        final var bytes = Files.readAllBytes(file);
+        final var content = new String(bytes, StandardCharsets.ISO_8859_1).replace("NESTMATE", "NESTMATX");
+        Files.write(file, content.getBytes(StandardCharsets.ISO_8859_1));
+        final var e = Assertions.assertThrows(IOException.class, () -> Bundle.read(file));
+        Assertions.assertTrue(e.getMessage().contains("corrupt"));
+    }
+}
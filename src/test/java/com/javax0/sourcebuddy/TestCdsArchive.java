@@ -0,0 +1,26 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class TestCdsArchive {
+
+    @Test
+    @DisplayName("The child JVM command line has the options, the class path and the mode")
+    void commandLine() {
+        final var command = CdsArchive.command(List.of("-XX:SharedArchiveFile=x.jsa"), "first");
+        Assertions.assertTrue(command.get(0).endsWith("java"));
+        Assertions.assertEquals("-XX:SharedArchiveFile=x.jsa", command.get(1));
+        Assertions.assertEquals("first", command.get(command.size() - 1));
+        Assertions.assertTrue(command.get(command.size() - 2).endsWith(CdsArchive.class.getName()));
+    }
+
+    @Test
+    @DisplayName("The first compilation runs and is timed")
+    void firstCompilation() throws Exception {
+        Assertions.assertTrue(CdsArchive.first() > 0);
+    }
+}
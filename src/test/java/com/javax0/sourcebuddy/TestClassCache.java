@@ -0,0 +1,43 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestClassCache {
+
+    private static String source(int i) {
+        return """
+                package com.javax0.sourcebuddy.classcache;
+                public class Rule%d {}
+                """.formatted(i);
+    }
+
+    @Test
+    @DisplayName("The static compile methods return the cached class when the cache is on")
+    void cachedClassIsReturned() throws Exception {
+        final var cache = Compiler.classCache();
+        try {
+            cache.clear();
+            cache.maxSize(2);
+            final var first = Compiler.compile(source(1));
+            Assertions.assertSame(first, Compiler.compile(source(1)));
+            Assertions.assertNotSame(first, Compiler.compile("com.javax0.sourcebuddy.classcache.Rule1", source(1)));
+            Assertions.assertEquals(1, cache.hits());
+            Assertions.assertEquals(2, cache.misses());
+            Compiler.compile(source(2));
+            Assertions.assertEquals(1, cache.evictions());
+            Assertions.assertEquals(2, cache.size());
+        } finally {
+            cache.maxSize(0);
+            cache.clear();
+        }
+    }
+
+    @Test
+    @DisplayName("The cache is off by default")
+    void cacheIsOffByDefault() throws Exception {
+        Assertions.assertNotSame(Compiler.compile(source(3)), Compiler.compile(source(3)));
+        Assertions.assertEquals(0, Compiler.classCache().size());
+    }
+}
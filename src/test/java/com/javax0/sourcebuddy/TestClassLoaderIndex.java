@@ -0,0 +1,95 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Supplier;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+public class TestClassLoaderIndex {
+
+    private static final String LIBRARY = """
+            package com.javax0.sourcebuddy.loaderlib;
+            public class Library {
+                public static String name() { return "library"; }
+            }
+            """;
+
+    private static final String SNIPPET = """
+            package com.javax0.sourcebuddy.loader;
+            import com.javax0.sourcebuddy.loaderlib.Library;
+            public class Snippet implements java.util.function.Supplier<String> {
+                public String get() { return Library.name(); }
+            }
+            """;
+
+    /**
+     * Create a JAR, which is not on the class path, containing the library class.
+     */
+    private static Path libraryJar() throws Exception {
+        return libraryJar(LIBRARY, "classloader-index-test.jar");
+    }
+
+    private static Path libraryJar(final String library, final String name) throws Exception {
+        final var jar = Paths.get("./target").resolve(name);
+        Files.createDirectories(jar.getParent());
+        final var code = Compiler.java().from(library).compile().get();
+        final var manifest = new Manifest();
+        manifest.getMainAttributes().putValue("Manifest-Version", "1.0");
+        try (final var out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+            out.putNextEntry(new JarEntry("com/javax0/sourcebuddy/loaderlib/Library.class"));
+            out.write(code);
+            out.closeEntry();
+        }
+        return jar;
+    }
+
+    @Test
+    @DisplayName("The compiler sees the classes of the class loader, which are not on the class path")
+    void compileAgainstClassLoader() throws Exception {
+        final var jar = libraryJar();
+        try (final var loader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, getClass().getClassLoader())) {
+            Assertions.assertThrows(Compiler.CompileException.class, () -> Compiler.java().from(SNIPPET).compile());
+            final var loaded = Compiler.java().classLoader(loader).from(SNIPPET).compile().load();
+            @SuppressWarnings("unchecked") final var supplier = (Supplier<String>) loaded.newInstance("Snippet");
+            Assertions.assertEquals("library", supplier.get());
+            Assertions.assertSame(loader, supplier.getClass().getClassLoader().getParent());
+        }
+    }
+
+    @Test
+    @DisplayName("The index of a class loader is built once")
+    void indexIsCached() throws Exception {
+        final var jar = libraryJar();
+        try (final var loader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null)) {
+            final var index = ClassLoaderIndex.of(loader);
+            Assertions.assertSame(index, ClassLoaderIndex.of(loader));
+            Assertions.assertEquals(1, index.size());
+            Assertions.assertNotNull(index.find("com.javax0.sourcebuddy.loaderlib.Library"));
+        }
+    }
+
+    @Test
+    @DisplayName("The digest of the index changes when a class file of the class loader changes")
+    void digestReflectsContent() throws Exception {
+        final String before;
+        try (final var loader = new URLClassLoader(new URL[]{libraryJar().toUri().toURL()}, null)) {
+            before = ClassLoaderIndex.of(loader).digest();
+        }
+        // the JAR files opened through URL connections are cached, a changed library gets a new file name
+        try (final var loader = new URLClassLoader(new URL[]{libraryJar(LIBRARY, "classloader-index-same.jar").toUri().toURL()}, null)) {
+            Assertions.assertEquals(before, ClassLoaderIndex.of(loader).digest());
+        }
+        try (final var loader = new URLClassLoader(new URL[]{libraryJar(LIBRARY.replace("\"library\"", "\"changed\""), "classloader-index-changed.jar").toUri().toURL()}, null)) {
+            Assertions.assertNotEquals(before, ClassLoaderIndex.of(loader).digest());
+        }
+    }
+}
@@ -1,7 +1,21 @@
 package com.javax0.sourcebuddy;
 
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
 public class TestClassPathCollector {
 
     @Test
@@ -10,5 +24,67 @@ public class TestClassPathCollector {
         final var classpath = ClasspathCollector.getEntries();
     }
 
+    @Test
+    @DisplayName("The entries are cached and the caller gets a copy it can modify")
+    void testCachedCopy() {
+        final var first = ClasspathCollector.getEntries();
+        final var second = ClasspathCollector.getEntries();
+        Assertions.assertEquals(first, second);
+        Assertions.assertNotSame(first, second);
+        first.clear();
+        Assertions.assertEquals(second, ClasspathCollector.getEntries());
+    }
+
+    @Test
+    @DisplayName("The entries listed in the manifest follow the JAR file in the order of the class path")
+    void testManifestClassPath() throws Exception {
+        final var dir = Files.createDirectories(Paths.get("./target/classpath-collector"));
+        final var a = jar(dir.resolve("a.jar"), "b.jar lib/");
+        final var b = jar(dir.resolve("b.jar"), "a.jar");
+        final var c = jar(dir.resolve("c.jar"), null);
+        final var lib = Files.createDirectories(dir.resolve("lib"));
+        final var saved = System.getProperty("java.class.path");
+        try {
+            System.setProperty("java.class.path", String.join(File.pathSeparator, a.toString(), c.toString(), b.toString()));
+            final var entries = new ArrayList<>(ClasspathCollector.getEntries());
+            Assertions.assertEquals(List.of(canonical(a), canonical(b), canonical(lib), canonical(c)), entries);
+        } finally {
+            System.setProperty("java.class.path", saved);
+        }
+        Assertions.assertFalse(ClasspathCollector.getEntries().contains(canonical(a)));
+    }
+
+    @Test
+    @DisplayName("A manifest cycle written with relative paths reads every JAR file once")
+    void testRelativeManifestCycle() throws Exception {
+        final var lib = Files.createDirectories(Paths.get("./target/classpath-collector-cycle/lib"));
+        final var a = jar(lib.resolve("a.jar"), "../lib/b.jar");
+        final var b = jar(lib.resolve("b.jar"), "../lib/a.jar");
+        final var collector = new ClasspathCollector();
+        final var process = ClasspathCollector.class.getDeclaredMethod("processClassPathEntries", String.class);
+        process.setAccessible(true);
+        process.invoke(collector, a.toString());
+        final var nodes = ClasspathCollector.class.getDeclaredField("nodes");
+        nodes.setAccessible(true);
+        Assertions.assertTrue(((Map<?, ?>) nodes.get(collector)).size() <= 3);
+        final var entries = ClasspathCollector.class.getDeclaredField("entries");
+        entries.setAccessible(true);
+        Assertions.assertEquals(List.of(canonical(a), canonical(b)), new ArrayList<>((Set<?>) entries.get(collector)));
+    }
+
+    private static Path jar(final Path file, final String classPath) throws Exception {
+        final var manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (classPath != null) {
+            manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, classPath);
+        }
+        try (final var out = new JarOutputStream(Files.newOutputStream(file), manifest)) {
+            // only the manifest
+        }
+        return file;
+    }
 
+    private static String canonical(final Path path) throws Exception {
+        return path.toFile().getCanonicalPath();
+    }
 }
@@ -0,0 +1,87 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Supplier;
+
+public class TestClassPathLayer {
+
+    private static Fluent.Compiled base() throws Exception {
+        return Compiler.java()
+                .from("com.javax0.sourcebuddy.layer.base.Greeting", """
+                        package com.javax0.sourcebuddy.layer.base;
+                        public interface Greeting {
+                            String greet(String name);
+                        }
+                        """)
+                .from("com.javax0.sourcebuddy.layer.base.Hello", """
+                        package com.javax0.sourcebuddy.layer.base;
+                        public class Hello implements Greeting {
+                            public String greet(String name) { return "Hello, " + name; }
+                        }
+                        """)
+                .compile();
+    }
+
+    @Test
+    @DisplayName("Compilations use the classes of an earlier compilation from the memory and share the loaded classes")
+    void compileAgainstLayer() throws Exception {
+        final var base = base();
+        Class<?> greeting = null;
+        for (int i = 0; i < 3; i++) {
+            final var loaded = Compiler.java().classPathLayer(base)
+                    .from("com.javax0.sourcebuddy.layer.Snippet", """
+                            package com.javax0.sourcebuddy.layer;
+                            import com.javax0.sourcebuddy.layer.base.*;
+                            public class Snippet implements java.util.function.Supplier<String> {
+                                public String get() { Greeting g = new Hello(); return g.greet("%d"); }
+                            }
+                            """.formatted(i))
+                    .compile().load();
+            @SuppressWarnings("unchecked") final var supplier = (Supplier<String>) loaded.newInstance("Snippet");
+            Assertions.assertEquals("Hello, " + i, supplier.get());
+            final var loadedGreeting = supplier.getClass().getClassLoader().loadClass("com.javax0.sourcebuddy.layer.base.Greeting");
+            if (greeting != null) {
+                Assertions.assertSame(greeting, loadedGreeting);
+            }
+            greeting = loadedGreeting;
+        }
+    }
+
+    @Test
+    @DisplayName("A layer can be compiled against another layer")
+    void layerOnLayer() throws Exception {
+        final var middle = Compiler.java().classPathLayer(base())
+                .from("com.javax0.sourcebuddy.layer.middle.Loud", """
+                        package com.javax0.sourcebuddy.layer.middle;
+                        import com.javax0.sourcebuddy.layer.base.Hello;
+                        public class Loud extends Hello {
+                            public String greet(String name) { return super.greet(name).toUpperCase(); }
+                        }
+                        """)
+                .compile();
+        final var loaded = Compiler.java().classPathLayer(middle)
+                .from("com.javax0.sourcebuddy.layer.Top", """
+                        package com.javax0.sourcebuddy.layer;
+                        import com.javax0.sourcebuddy.layer.base.Greeting;
+                        import com.javax0.sourcebuddy.layer.middle.Loud;
+                        public class Top implements java.util.function.Supplier<String> {
+                            public String get() { Greeting g = new Loud(); return g.greet("top"); }
+                        }
+                        """)
+                .compile().load();
+        @SuppressWarnings("unchecked") final var supplier = (Supplier<String>) loaded.newInstance("Top");
+        Assertions.assertEquals("HELLO, TOP", supplier.get());
+    }
+
+    @Test
+    @DisplayName("A failed compilation cannot be a layer")
+    void failedCompilationIsNotALayer() {
+        final var compiler = Compiler.java().from("com.javax0.sourcebuddy.layer.Broken",
+                "package com.javax0.sourcebuddy.layer; class Broken { int x = missing; }");
+        Assertions.assertThrows(Compiler.CompileException.class, compiler::compile);
+        Assertions.assertThrows(RuntimeException.class, () -> Compiler.java().classPathLayer((Fluent.Compiled) compiler));
+    }
+}
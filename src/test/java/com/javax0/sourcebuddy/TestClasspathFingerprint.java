@@ -0,0 +1,84 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+public class TestClasspathFingerprint {
+
+    @Test
+    @DisplayName("Only the changed entries are recalculated, and the change is reflected in the digest")
+    void changedEntriesAreRecalculated() throws Exception {
+        final var root = Paths.get("./target/classpath-fingerprint-test");
+        final var dir = root.resolve("classes");
+        Files.createDirectories(dir.resolve("a/b"));
+        final var classFile = dir.resolve("a/b/C.class");
+        Files.writeString(classFile, "version 1");
+        final var jar = root.resolve("lib.jar");
+        Files.writeString(jar, "jar content");
+
+        for (final var contentHash : List.of(false, true)) {
+            final var service = new ClasspathFingerprint(List.of(dir.toString(), jar.toString()), contentHash);
+            final var first = service.digest();
+            Assertions.assertEquals(2, service.recalculated());
+            Assertions.assertEquals(first, service.digest());
+            Assertions.assertEquals(2, service.recalculated());
+
+            Files.writeString(classFile, contentHash ? "version 1" : "version 22");
+            final var second = service.digest();
+            Assertions.assertNotEquals(first, second);
+            Assertions.assertEquals(3, service.recalculated());
+        }
+    }
+
+    @Test
+    @DisplayName("A missing entry has a digest different from an existing one")
+    void missingEntry() throws Exception {
+        final var root = Paths.get("./target/classpath-fingerprint-test");
+        Files.createDirectories(root);
+        final var jar = root.resolve("maybe.jar");
+        Files.deleteIfExists(jar);
+        final var service = new ClasspathFingerprint(List.of(jar.toString()), false);
+        final var missing = service.digest();
+        Files.writeString(jar, "jar");
+        Assertions.assertNotEquals(missing, service.digest());
+    }
+
+    @Test
+    @DisplayName("The system service covers the class path")
+    void systemService() {
+        final var service = ClasspathFingerprint.system();
+        Assertions.assertSame(service, ClasspathFingerprint.system());
+        Assertions.assertFalse(service.entries().isEmpty());
+        Assertions.assertEquals(service.digest(), service.digest());
+    }
+
+    @Test
+    @DisplayName("A cached compilation is not used when a class path entry given in the options changed")
+    void explicitClassPathIsFingerprinted() throws Exception {
+        final var lib = Paths.get("./target/classpath-fingerprint-test/explicit");
+        final var library = """
+                package com.javax0.sourcebuddy.cplib;
+                public class Lib {
+                    public static final String V = "%s";
+                }
+                """;
+        final var user = """
+                package com.javax0.sourcebuddy.cpuser;
+                public class User {
+                    public static String v() { return com.javax0.sourcebuddy.cplib.Lib.V; }
+                }
+                """;
+        final var cache = new MemoryClassStore(10, false);
+        Compiler.java().from(library.formatted("1")).compile().saveTo(lib);
+        final var first = Compiler.java().classPath(lib.toString()).isolate().cache(cache).from(user).compile().load().get();
+        Assertions.assertEquals("1", first.getMethod("v").invoke(null));
+        Compiler.java().from(library.formatted("22")).compile().saveTo(lib);
+        final var second = Compiler.java().classPath(lib.toString()).isolate().cache(cache).from(user).compile().load().get();
+        Assertions.assertEquals("22", second.getMethod("v").invoke(null));
+    }
+}
@@ -0,0 +1,78 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TestCoalesce {
+
+    private static final int THREADS = 8;
+
+    private static <T> ArrayList<Future<T>> runConcurrently(final Callable<T> callable) throws InterruptedException {
+        final var executor = Executors.newFixedThreadPool(THREADS);
+        final var start = new CountDownLatch(1);
+        final var futures = new ArrayList<Future<T>>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return callable.call();
+                }));
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+        }
+        return futures;
+    }
+
+    @Test
+    @DisplayName("Concurrent identical compilations all get the byte code")
+    void concurrentCompilationsShareTheResult() throws Exception {
+        final var futures = runConcurrently(() -> Compiler.java().from("""
+                package com.javax0.sourcebuddy.coalesce;
+                public class Shared { public static class Inner {} }
+                """).coalesce().compile().load());
+        for (final var future : futures) {
+            final var loaded = future.get();
+            Assertions.assertEquals(2, loaded.stream().count());
+            Assertions.assertEquals("com.javax0.sourcebuddy.coalesce.Shared", loaded.get().getName());
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent identical failing compilations all get the compile exception")
+    void concurrentCompilationsShareTheError() throws Exception {
+        final var futures = runConcurrently(() -> Compiler.java().from("""
+                package com.javax0.sourcebuddy.coalesce;
+                public class Failing { int i = "string"; }
+                """).coalesce().compile());
+        for (final var future : futures) {
+            final var e = Assertions.assertThrows(ExecutionException.class, future::get);
+            Assertions.assertTrue(e.getCause() instanceof Compiler.CompileException);
+            Assertions.assertTrue(e.getCause().getMessage().contains("incompatible types"));
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent identical compilations creating resources all get the resources")
+    void concurrentCompilationsWithResources() throws Exception {
+        final var futures = runConcurrently(() -> Compiler.java().from("""
+                package com.javax0.sourcebuddy.generated;
+                public class CoalescedUser {
+                    public String f() { return Hello.hello(); }
+                }
+                """).options("-processor", TestGeneratedOutputs.Generator.class.getName()).coalesce().compile().load());
+        for (final var future : futures) {
+            final var loader = future.get().get().getClassLoader();
+            Assertions.assertNotNull(loader.getResource("com/javax0/sourcebuddy/generated/greeting.txt"));
+        }
+    }
+}
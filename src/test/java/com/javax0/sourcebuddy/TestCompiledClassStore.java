@@ -0,0 +1,74 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TestCompiledClassStore {
+
+    private static final String SOURCE = """
+            package com.javax0.sourcebuddy.store;
+            public class Template {
+                public Runnable r = () -> {};
+                public class Inner {}
+            }
+            """;
+
+    /**
+     * A simple store implementation, as a user of the SPI would write it.
+     */
+    private static class MapStore implements CompiledClassStore {
+        final Map<String, Map<String, byte[]>> entries = new ConcurrentHashMap<>();
+        int loads = 0;
+
+        @Override
+        public Optional<Map<String, byte[]>> load(String key) {
+            loads++;
+            return Optional.ofNullable(entries.get(key));
+        }
+
+        @Override
+        public void store(String key, Map<String, byte[]> classes) {
+            entries.put(key, classes);
+        }
+    }
+
+    @Test
+    @DisplayName("The store is consulted before and filled after the compilation")
+    void storeIsUsed() throws Exception {
+        final var store = new MapStore();
+        Compiler.java().from(SOURCE).cache(store).compile();
+        Assertions.assertEquals(1, store.loads);
+        Assertions.assertEquals(1, store.entries.size());
+        final var entry = store.entries.values().iterator().next();
+        Assertions.assertTrue(entry.containsKey("com.javax0.sourcebuddy.store.Template"));
+        Assertions.assertTrue(entry.containsKey("com.javax0.sourcebuddy.store.Template$Inner"));
+
+        final var loaded = Compiler.java().from(SOURCE).cache(store).compile().load();
+        Assertions.assertEquals(2, store.loads);
+        Assertions.assertEquals(1, store.entries.size());
+        Assertions.assertEquals(2, loaded.stream().count());
+        Assertions.assertNotNull(loaded.newInstance());
+    }
+
+    @Test
+    @DisplayName("The tiered store fills the memory tier from the shared tier")
+    void tieredStore() throws Exception {
+        final var shared = new DiskCache(Paths.get("./target/class-store-test"));
+        shared.clear();
+        Compiler.java().from(SOURCE).cache(shared).compile();
+
+        final var local = new MemoryClassStore(10, false);
+        final var tiered = CompiledClassStore.tiered(local, shared);
+        Compiler.java().from(SOURCE).cache(tiered).compile();
+        Compiler.java().from(SOURCE).cache(tiered).compile().load().newInstance();
+        Assertions.assertEquals(1, shared.hits());
+        Assertions.assertEquals(1, local.cache().hits());
+        Assertions.assertEquals(1, local.cache().misses());
+    }
+}
@@ -0,0 +1,66 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Supplier;
+
+public class TestCompilerSession {
+
+    private static String source(final String value) {
+        return """
+                package com.javax0.sourcebuddy.session;
+                import java.util.function.Supplier;
+                public class Value implements Supplier<String> {
+                    public String get(){ return "%s"; }
+                }
+                """.formatted(value);
+    }
+
+    @Test
+    @DisplayName("Successive compilations in a session do not see each other's classes")
+    void compilationsAreIsolated() throws Exception {
+        final var session = new CompilerSession(3);
+        for (int i = 0; i < 7; i++) {
+            final var loaded = session.java().from(source("v" + i)).compile().load();
+            @SuppressWarnings("unchecked") final var supplier = (Supplier<String>) loaded.newInstance("Value");
+            Assertions.assertEquals("v" + i, supplier.get());
+        }
+        Assertions.assertEquals(7, session.runs());
+        Assertions.assertEquals(2, session.recycles());
+    }
+
+    @Test
+    @DisplayName("A failing compilation does not break the session")
+    void failureDoesNotBreakTheSession() throws Exception {
+        final var session = new CompilerSession();
+        Assertions.assertThrows(Compiler.CompileException.class,
+                () -> session.java().from("com.javax0.sourcebuddy.session.Broken",
+                        "package com.javax0.sourcebuddy.session; class Broken { int x = missing; }").compile());
+        final var loaded = session.java().from(source("ok")).compile().load();
+        @SuppressWarnings("unchecked") final var supplier = (Supplier<String>) loaded.newInstance("Value");
+        Assertions.assertEquals("ok", supplier.get());
+    }
+
+    @Test
+    @DisplayName("The classes of a layer are not seen by a later compilation without the layer")
+    void layerDoesNotLeak() throws Exception {
+        final var session = new CompilerSession();
+        final var base = Compiler.java().from("""
+                package com.javax0.sourcebuddy.lay;
+                public class L {
+                    public static String v() { return "v"; }
+                }
+                """).compile();
+        final var user = """
+                package com.javax0.sourcebuddy.session;
+                public class UsesLayer {
+                    public static String get() { return com.javax0.sourcebuddy.lay.L.v(); }
+                }
+                """;
+        final var loaded = session.java().classPathLayer(base).from(user).compile().load();
+        Assertions.assertEquals("v", loaded.get().getMethod("get").invoke(null));
+        Assertions.assertThrows(Compiler.CompileException.class, () -> session.java().from(user).compile());
+    }
+}
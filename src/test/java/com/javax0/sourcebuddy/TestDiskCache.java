@@ -0,0 +1,82 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+
+public class TestDiskCache {
+
+    private static final String SOURCE = """
+            package com.javax0.sourcebuddy.cached;
+            public class Cached {
+                public static class Inner {}
+                public String hello(){ return "hello"; }
+            }
+            """;
+
+    private static Path emptyDirectory(final String name) throws IOException {
+        final var dir = Paths.get("./target/disk-cache-test", name);
+        if (Files.exists(dir)) {
+            try (final var files = Files.walk(dir)) {
+                for (final var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+        return dir;
+    }
+
+    @Test
+    @DisplayName("The second compilation of the same source is served from the cache")
+    void secondCompilationIsCached() throws Exception {
+        final var cache = new DiskCache(emptyDirectory("hit"));
+        final var first = Compiler.java().from(SOURCE).cache(cache).compile().stream().toList();
+        Assertions.assertEquals(0, cache.hits());
+        Assertions.assertEquals(1, cache.misses());
+        final var loaded = Compiler.java().from(SOURCE).cache(cache).compile().load();
+        Assertions.assertEquals(1, cache.hits());
+        Assertions.assertEquals(2, loaded.stream().count());
+        Assertions.assertEquals("hello", loaded.get().getMethod("hello").invoke(loaded.newInstance()));
+        Assertions.assertEquals(first.size(), Compiler.java().from(SOURCE).cache(cache).compile().stream().count());
+    }
+
+    @Test
+    @DisplayName("Different options result different cache entries")
+    void optionsAreInTheKey() throws Exception {
+        final var cache = new DiskCache(emptyDirectory("options"));
+        Compiler.java().from(SOURCE).cache(cache).compile();
+        Compiler.java().from(SOURCE).noDebugInfo().cache(cache).compile();
+        Assertions.assertEquals(0, cache.hits());
+        Assertions.assertEquals(2, cache.misses());
+    }
+
+    @Test
+    @DisplayName("The size of the cache is bounded")
+    void cacheIsEvicted() throws Exception {
+        final var cache = new DiskCache(emptyDirectory("evict"), 1);
+        Compiler.java().from(SOURCE).cache(cache).compile();
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("A corrupt cache file is a cache miss")
+    void corruptFileIsMiss() throws Exception {
+        final var dir = emptyDirectory("corrupt");
+        final var cache = new DiskCache(dir);
+        Compiler.java().from(SOURCE).cache(cache).compile();
+        try (final var files = Files.list(dir)) {
+            for (final var file : files.toList()) {
+                Files.write(file, new byte[]{1, 2, 3});
+            }
+        }
+        final var loaded = Compiler.java().from(SOURCE).cache(cache).compile().load();
+        Assertions.assertEquals(0, cache.hits());
+        Assertions.assertEquals("hello", loaded.get().getMethod("hello").invoke(loaded.newInstance()));
+    }
+}
@@ -0,0 +1,82 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TestFileManagerPool {
+
+    @Test
+    @DisplayName("Successive compilations reuse the pooled file manager")
+    void compilationsReuseFileManager() throws Exception {
+        final var source = """
+                package com.javax0.sourcebuddy.pooled;
+                public class Pooled {}
+                """;
+        Compiler.java().from(source).compile();
+        final var created = FileManagerPool.shared().created();
+        for (int i = 0; i < 3; i++) {
+            Compiler.java().from(source).compile().load();
+        }
+        Assertions.assertEquals(created, FileManagerPool.shared().created());
+    }
+
+    /**
+     * @return a file manager forwarding to {@code fileManager}, which records when it is closed
+     */
+    private static StandardJavaFileManager recordingClose(final StandardJavaFileManager fileManager, final AtomicBoolean closed) {
+        return (StandardJavaFileManager) Proxy.newProxyInstance(StandardJavaFileManager.class.getClassLoader(),
+                new Class<?>[]{StandardJavaFileManager.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        closed.set(true);
+                    }
+                    try {
+                        return method.invoke(fileManager, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @Test
+    @DisplayName("The file managers are kept per options, evicted when idle and closed with the pool")
+    void poolLifecycle() {
+        final var compiler = ToolProvider.getSystemJavaCompiler();
+        final var pool = new FileManagerPool(1, Duration.ofHours(1));
+        final var a = List.of("-g");
+        final var b = List.of("-g:none");
+        final var fmA = pool.borrow(compiler, a);
+        final var fmA2 = pool.borrow(compiler, a);
+        Assertions.assertNotSame(fmA, fmA2);
+        pool.release(a, fmA);
+        final var closed = new AtomicBoolean(false);
+        pool.release(a, recordingClose(fmA2, closed));
+        Assertions.assertTrue(closed.get(), "releasing into a full pool closes the file manager");
+        Assertions.assertEquals(1, pool.idle());
+        Assertions.assertSame(fmA, pool.borrow(compiler, a));
+        final var fmB = pool.borrow(compiler, b);
+        Assertions.assertNotSame(fmA2, fmB);
+        Assertions.assertEquals(0, pool.idle());
+        pool.release(b, fmB);
+        Assertions.assertEquals(1, pool.idle());
+        Assertions.assertSame(fmB, pool.borrow(compiler, b));
+        pool.release(b, fmB);
+        pool.close();
+        Assertions.assertEquals(0, pool.idle());
+        pool.release(a, fmA);
+        Assertions.assertEquals(0, pool.idle());
+
+        final var evicting = new FileManagerPool(2, Duration.ZERO);
+        evicting.release(a, evicting.borrow(compiler, a));
+        evicting.evictIdle();
+        Assertions.assertEquals(0, evicting.idle());
+    }
+}
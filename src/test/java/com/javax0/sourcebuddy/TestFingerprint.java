@@ -0,0 +1,89 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class TestFingerprint {
+
+    private static String fingerprint(FingerprintMode mode, String code) {
+        return new Fingerprint().addSources(List.of(new StringJavaSource("a.B", code)), mode).hex();
+    }
+
+    private static String normalized(String code) {
+        return fingerprint(FingerprintMode.NORMALIZED, code);
+    }
+
+    @Test
+    @DisplayName("Comments and whitespace do not change the normalized fingerprint")
+    void commentsAndWhitespaceAreIgnored() {
+        final var expected = normalized("package a; class B { int x = 1 + 2; }");
+        Assertions.assertEquals(expected, normalized("""
+                // generated at 2024-01-01T12:00:00
+                package a;
+                /* the class */
+                class B {
+                    int x = 1 + 2; // the sum
+                }
+                """));
+        Assertions.assertEquals(expected, normalized("package a;class B{int x=1+2;}"));
+        Assertions.assertNotEquals(fingerprint(FingerprintMode.RAW, "package a;class B{int x=1+2;}"),
+                fingerprint(FingerprintMode.RAW, "package a; class B { int x = 1 + 2; }"));
+    }
+
+    @Test
+    @DisplayName("Significant differences change the normalized fingerprint")
+    void significantDifferencesAreNotIgnored() {
+        Assertions.assertNotEquals(normalized("class B { String s = \"a b\"; }"), normalized("class B { String s = \"a  b\"; }"));
+        Assertions.assertNotEquals(normalized("class B { String s = \"// x\"; }"), normalized("class B { String s = \"\"; }"));
+        Assertions.assertNotEquals(normalized("class B { char c = ' '; }"), normalized("class B { char c = '\\t'; }"));
+        Assertions.assertNotEquals(normalized("class B { int a; }"), normalized("class B { inta; }"));
+        Assertions.assertNotEquals(normalized("class B { int x = a >> b; }"), normalized("class B { int x = a > > b; }"));
+        Assertions.assertNotEquals(normalized("class B { double d = 1.5; }"), normalized("class B { double d = 1 . 5; }"));
+        Assertions.assertNotEquals(normalized("class B { double d = 1e-5; }"), normalized("class B { double d = 1e - 5; }"));
+        Assertions.assertNotEquals(normalized("""
+                class B { String s = \"""
+                    a  b
+                    \"""; }
+                """), normalized("""
+                class B { String s = \"""
+                    a b
+                    \"""; }
+                """));
+    }
+
+    @Test
+    @DisplayName("Sources differing only in comments share the cached compilation")
+    void normalizedSourcesShareTheCache() throws Exception {
+        final var cache = new DiskCache(java.nio.file.Paths.get("./target/fingerprint-test"));
+        cache.clear();
+        final var hits = cache.hits();
+        Compiler.java().from("""
+                // generated 1
+                package com.javax0.sourcebuddy.fingerprint; public class Generated {}
+                """).fingerprint(FingerprintMode.NORMALIZED).cache(cache).compile();
+        Compiler.java().from("""
+                // generated 2
+                package com.javax0.sourcebuddy.fingerprint;
+                public class Generated {}
+                """).fingerprint(FingerprintMode.NORMALIZED).cache(cache).compile().load().get();
+        Assertions.assertEquals(hits + 1, cache.hits());
+    }
+
+    @Test
+    @DisplayName("A long source and its reformatted version without comments have the same normalized fingerprint")
+    void longSourceIsNormalized() {
+        final var commented = new StringBuilder("package a;\n/* generated at 2024-01-01T12:00:00 */\npublic class B {\n");
+        final var compact = new StringBuilder("package a;public class B{");
+        for (int i = 0; i < 300; i++) {
+            commented.append("    // method ").append(i).append("\n");
+            commented.append("    public int m").append(i).append("(int x) { return x * ").append(i).append(" + \"s\".length(); }\n");
+            compact.append("public int m").append(i).append("(int x){return x*").append(i).append("+\"s\".length();}");
+        }
+        final var code = commented.append("}\n").toString();
+        Assertions.assertEquals(normalized(code), normalized(compact.append("}").toString()));
+        Assertions.assertNotEquals(normalized(code), normalized(code.replace("m299", "m300")));
+    }
+}
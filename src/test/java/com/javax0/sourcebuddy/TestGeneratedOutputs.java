@@ -0,0 +1,114 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+
+public class TestGeneratedOutputs {
+
+    private static final String USER = """
+            package com.javax0.sourcebuddy.generated;
+            public class User {
+                public String f() { return Hello.hello(); }
+            }
+            """;
+
+    /**
+     * A processor creating a source file and resources in the first round. It also tries to read a resource, which
+     * does not exist, and records the outcome in a resource.
+     */
+    @SupportedAnnotationTypes("*")
+    public static class Generator extends AbstractProcessor {
+        private boolean generated = false;
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @Override
+        public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+            if (generated) {
+                return false;
+            }
+            generated = true;
+            final var filer = processingEnv.getFiler();
+            try {
+                try (final var writer = filer.createSourceFile("com.javax0.sourcebuddy.generated.Hello").openWriter()) {
+                    writer.write("""
+                            package com.javax0.sourcebuddy.generated;
+                            public class Hello {
+                                public static String hello() { return "hello"; }
+                            }
+                            """);
+                }
+                try (final var writer = filer.createResource(StandardLocation.CLASS_OUTPUT, "com.javax0.sourcebuddy.generated", "greeting.txt").openWriter()) {
+                    writer.write("hi");
+                }
+                try (final var out = filer.createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/com.javax0.sourcebuddy.generated.Marker").openOutputStream()) {
+                    out.write("com.javax0.sourcebuddy.generated.Hello".getBytes(StandardCharsets.UTF_8));
+                }
+                String missing;
+                try {
+                    missing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", "missing.txt").getCharContent(true).toString();
+                } catch (IOException e) {
+                    missing = "not found";
+                }
+                try (final var writer = filer.createResource(StandardLocation.CLASS_OUTPUT, "", "missing-result.txt").openWriter()) {
+                    writer.write(missing);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return false;
+        }
+    }
+
+    private static Compiler.Loaded compileWithGenerator() throws Exception {
+        return Compiler.java().from(USER).options("-processor", Generator.class.getName()).compile().load();
+    }
+
+    @Test
+    @DisplayName("The sources generated by an annotation processor are compiled in memory")
+    void generatedSources() throws Exception {
+        final var user = compileWithGenerator().get();
+        Assertions.assertEquals("hello", user.getMethod("f").invoke(user.getConstructor().newInstance()));
+    }
+
+    @Test
+    @DisplayName("The resources created by an annotation processor are loaded from the class loader")
+    void generatedResources() throws Exception {
+        final var loader = compileWithGenerator().get().getClassLoader();
+        try (final var in = loader.getResourceAsStream("com/javax0/sourcebuddy/generated/greeting.txt")) {
+            Assertions.assertNotNull(in);
+            Assertions.assertEquals("hi", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        final var services = Collections.list(loader.getResources("META-INF/services/com.javax0.sourcebuddy.generated.Marker"));
+        Assertions.assertEquals(1, services.size());
+        try (final var in = services.get(0).openStream()) {
+            Assertions.assertEquals("com.javax0.sourcebuddy.generated.Hello", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("A resource, which was not created, cannot be read and is not loadable")
+    void missingResource() throws Exception {
+        final var loader = compileWithGenerator().get().getClassLoader();
+        try (final var in = loader.getResourceAsStream("missing-result.txt")) {
+            Assertions.assertEquals("not found", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        Assertions.assertNull(loader.getResource("missing.txt"));
+    }
+}
@@ -0,0 +1,157 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+public class TestIncremental {
+
+    private static final String BASE = """
+            package com.javax0.sourcebuddy.incremental;
+            public class Base {
+                public static final String PREFIX = "%s";
+                public static String value() { return "%s"; }
+            }
+            """;
+
+    private static final String BASE_NEW_METHOD = """
+            package com.javax0.sourcebuddy.incremental;
+            public class Base {
+                public static final String PREFIX = "p";
+                public static String value() { return "%s"; }
+                public static String other() { return "other"; }
+            }
+            """;
+
+    private static final String USER = """
+            package com.javax0.sourcebuddy.incremental;
+            import java.util.function.Supplier;
+            public class User implements Supplier<String> {
+                public String get() { return Base.value(); }
+            }
+            """;
+
+    private static final String CONSTANT_USER = """
+            package com.javax0.sourcebuddy.incremental;
+            import java.util.function.Supplier;
+            public class ConstantUser implements Supplier<String> {
+                public String get() { return Base.PREFIX; }
+            }
+            """;
+
+    private static final String OTHER = """
+            package com.javax0.sourcebuddy.incremental;
+            public class Other {
+                public String get() { return "other"; }
+            }
+            """;
+
+    private static Map<String, Recompilation.Reason> reasons(final Compiler compiler) {
+        return compiler.recompilation().compiled().stream()
+                .collect(Collectors.toMap(u -> u.name().substring(u.name().lastIndexOf('.') + 1), Recompilation.Unit::reason));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String get(final Compiler.Loaded loaded, final String name) throws Exception {
+        return ((Supplier<String>) loaded.newInstance(name)).get();
+    }
+
+    private static Compiler compileAll() throws Exception {
+        final var compiler = (Compiler) Compiler.java().incremental();
+        compiler.from(BASE.formatted("p", "a")).from(USER).from(CONSTANT_USER).from(OTHER).compile();
+        Assertions.assertEquals(Set.of(Recompilation.Reason.FIRST), Set.copyOf(reasons(compiler).values()));
+        compiler.reset();
+        return compiler;
+    }
+
+    @Test
+    @DisplayName("A body change compiles only the changed source")
+    void bodyChange() throws Exception {
+        final var compiler = compileAll();
+        compiler.from(BASE.formatted("p", "b")).compile();
+        Assertions.assertEquals(Map.of("Base", Recompilation.Reason.CHANGED), reasons(compiler));
+        Assertions.assertEquals(3, compiler.recompilation().reused().size());
+        Assertions.assertEquals("b", get(compiler.load(), "User"));
+    }
+
+    @Test
+    @DisplayName("An API change compiles the dependent sources")
+    void apiChange() throws Exception {
+        final var compiler = compileAll();
+        compiler.from(BASE_NEW_METHOD.formatted("c")).compile();
+        Assertions.assertEquals(Map.of(
+                "Base", Recompilation.Reason.CHANGED,
+                "User", Recompilation.Reason.DEPENDENT,
+                "ConstantUser", Recompilation.Reason.DEPENDENT), reasons(compiler));
+        Assertions.assertEquals(Set.of("com.javax0.sourcebuddy.incremental.Other"), compiler.recompilation().reused());
+        Assertions.assertEquals("c", get(compiler.load(), "User"));
+    }
+
+    @Test
+    @DisplayName("A constant change compiles all the sources")
+    void constantChange() throws Exception {
+        final var compiler = compileAll();
+        compiler.from(BASE.formatted("q", "a")).compile();
+        final var reasons = reasons(compiler);
+        Assertions.assertEquals(Recompilation.Reason.CHANGED, reasons.get("Base"));
+        Assertions.assertEquals(Recompilation.Reason.CONSTANT_CHANGED, reasons.get("Other"));
+        Assertions.assertEquals(4, reasons.size());
+        Assertions.assertEquals("q", get(compiler.load(), "ConstantUser"));
+    }
+
+    private static final String INHERITED_BASE = """
+            package com.javax0.sourcebuddy.inherited;
+            public class Base {
+                public String m() { return "m"; }
+            }
+            """;
+
+    private static final String MID = """
+            package com.javax0.sourcebuddy.inherited;
+            public class Mid extends Base {
+            }
+            """;
+
+    private static final String MID_USER = """
+            package com.javax0.sourcebuddy.inherited;
+            import java.util.function.Supplier;
+            public class User implements Supplier<String> {
+                public String get() { return new Mid().m(); }
+            }
+            """;
+
+    @Test
+    @DisplayName("An API change compiles the sources using the changed members through a subclass")
+    void apiChangeThroughSubclass() throws Exception {
+        final var compiler = (Compiler) Compiler.java().incremental();
+        compiler.from(INHERITED_BASE).from(MID).from(MID_USER).compile();
+        compiler.reset();
+        compiler.from(INHERITED_BASE.replace("}\n}", "}\n    public String n() { return \"n\"; }\n}")).compile();
+        Assertions.assertEquals(Map.of(
+                "Base", Recompilation.Reason.CHANGED,
+                "Mid", Recompilation.Reason.DEPENDENT,
+                "User", Recompilation.Reason.DEPENDENT), reasons(compiler));
+        Assertions.assertEquals("m", get(compiler.load(), "User"));
+
+        compiler.reset();
+        Assertions.assertThrows(Compiler.CompileException.class,
+                () -> compiler.from(INHERITED_BASE.replace("m()", "q()")).compile());
+    }
+
+    @Test
+    @DisplayName("The class files are kept when a compilation fails, and a reverted source needs no compilation")
+    void failThenRevert() throws Exception {
+        final var compiler = compileAll();
+        Assertions.assertThrows(Compiler.CompileException.class,
+                () -> compiler.from(BASE.formatted("p", "a").replace("value()", "renamed()")).compile());
+        compiler.reset();
+        compiler.from(BASE.formatted("p", "a")).compile();
+        Assertions.assertEquals(Map.of(), reasons(compiler));
+        Assertions.assertEquals("a", get(compiler.load(), "User"));
+    }
+}
@@ -0,0 +1,159 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaFileObject;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+public class TestPackageIndex {
+
+    private static final String LIBRARY = """
+            package com.javax0.sourcebuddy.indexlib;
+            public class Library {
+                public static String name() { return "library"; }
+            }
+            """;
+
+    /**
+     * Create a JAR with a deflated class file, a stored text file and a versioned class file, which is ignored,
+     * because the JAR is not multi-release.
+     */
+    private static Path jar(final byte[] code) throws Exception {
+        final var jar = Paths.get("./target/package-index-test.jar");
+        Files.createDirectories(jar.getParent());
+        try (final var out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("com/javax0/sourcebuddy/indexlib/"));
+            out.closeEntry();
+            out.putNextEntry(new JarEntry("com/javax0/sourcebuddy/indexlib/Library.class"));
+            out.write(code);
+            out.closeEntry();
+            final var text = "stored content".getBytes();
+            final var stored = new JarEntry("com/javax0/sourcebuddy/indexlib/text.txt");
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(text.length);
+            final var crc = new CRC32();
+            crc.update(text);
+            stored.setCrc(crc.getValue());
+            out.putNextEntry(stored);
+            out.write(text);
+            out.closeEntry();
+            out.putNextEntry(new JarEntry("META-INF/versions/9/com/javax0/sourcebuddy/indexlib/Library.class"));
+            out.write(new byte[]{1, 2, 3});
+            out.closeEntry();
+        }
+        return jar;
+    }
+
+    @Test
+    @DisplayName("The central directory and the content of the entries are read from the mapped file")
+    void readZipDirectory() throws Exception {
+        final var code = Compiler.java().from(LIBRARY).compile().get();
+        final var jar = jar(code);
+        final var zip = ZipDirectory.read(jar);
+        try (final var jarFile = new JarFile(jar.toFile())) {
+            Assertions.assertEquals(jarFile.size(), zip.entries().size());
+            for (final var entry : zip.entries()) {
+                try (final var in = jarFile.getInputStream(jarFile.getEntry(entry.name()))) {
+                    Assertions.assertArrayEquals(in.readAllBytes(), zip.read(entry), entry.name());
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("The index lists the class files of the directories and JAR files by packages")
+    void indexEntries() throws Exception {
+        final var code = Compiler.java().from(LIBRARY).compile().get();
+        final var jar = jar(code);
+        final var index = new PackageIndex(List.of(jar.toString(), "./target/no-such-directory"));
+        Assertions.assertEquals(1, index.size());
+        final var library = index.find("com.javax0.sourcebuddy.indexlib.Library");
+        Assertions.assertNotNull(library);
+        try (final var in = library.openInputStream()) {
+            Assertions.assertArrayEquals(code, in.readAllBytes());
+        }
+        final var list = new ArrayList<JavaFileObject>();
+        index.list("com.javax0.sourcebuddy", false, list);
+        Assertions.assertTrue(list.isEmpty());
+        index.list("com.javax0.sourcebuddy", true, list);
+        Assertions.assertEquals(List.of(library), list);
+    }
+
+    @Test
+    @DisplayName("The compiler finds the classes of the class path through the index")
+    void compileWithIndex() throws Exception {
+        final var loaded = Compiler.java().indexClassPath().from("com.javax0.sourcebuddy.indexed.Snippet", """
+                package com.javax0.sourcebuddy.indexed;
+                import com.javax0.sourcebuddy.ClasspathFingerprint;
+                import java.util.function.Supplier;
+                public class Snippet implements Supplier<String> {
+                    public String get() { return ClasspathFingerprint.class.getSimpleName(); }
+                }
+                """).compile().load();
+        @SuppressWarnings("unchecked") final var supplier = (Supplier<String>) loaded.newInstance("Snippet");
+        Assertions.assertEquals("ClasspathFingerprint", supplier.get());
+        Assertions.assertSame(PackageIndex.system(), PackageIndex.system());
+        Assertions.assertThrows(Compiler.CompileException.class, () -> Compiler.java().indexClassPath()
+                .from("com.javax0.sourcebuddy.indexed.Missing", """
+                        package com.javax0.sourcebuddy.indexed;
+                        public class Missing extends com.javax0.sourcebuddy.NoSuchClass {}
+                        """).compile());
+    }
+
+    @Test
+    @DisplayName("The persisted index is reused, and only the changed JAR files are read again")
+    void persistedIndex() throws Exception {
+        final var code = Compiler.java().from(LIBRARY).compile().get();
+        final var jar = jar(code);
+        final var entries = List.of(jar.toAbsolutePath().normalize().toString());
+        final var file = PackageIndexFile.file(Paths.get("./target/package-index"), entries);
+        Files.deleteIfExists(file);
+        Assertions.assertNull(PackageIndexFile.read(file));
+
+        final var built = new PackageIndex(entries, Map.of());
+        Assertions.assertEquals(1, built.read());
+        PackageIndexFile.write(file, List.of(new PackageIndex.Jar(entries.get(0), Files.size(jar),
+                Files.getLastModifiedTime(jar).toMillis(), ZipDirectory.read(jar).entries().stream()
+                .filter(e -> e.name().equals("com/javax0/sourcebuddy/indexlib/Library.class")).toList())));
+
+        final var known = PackageIndexFile.read(file);
+        final var reused = new PackageIndex(entries, known);
+        Assertions.assertEquals(0, reused.read());
+        try (final var in = reused.find("com.javax0.sourcebuddy.indexlib.Library").openInputStream()) {
+            Assertions.assertArrayEquals(code, in.readAllBytes());
+        }
+
+        try (final var out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("empty.txt"));
+            out.closeEntry();
+        }
+        final var changed = new PackageIndex(entries, known);
+        Assertions.assertEquals(1, changed.read());
+        Assertions.assertEquals(0, changed.size());
+    }
+
+    @Test
+    @DisplayName("The index of the system class path is saved into the directory")
+    void systemIndexIsSaved() throws Exception {
+        final var directory = Paths.get("./target/package-index-system");
+        final var file = PackageIndexFile.file(directory, PackageIndex.classPathEntries());
+        Files.deleteIfExists(file);
+        final var index = PackageIndex.system(directory);
+        Assertions.assertTrue(Files.exists(file));
+        Assertions.assertEquals(index.size(), new PackageIndex(PackageIndex.classPathEntries(), PackageIndexFile.read(file)).size());
+        Assertions.assertSame(index, PackageIndex.system(directory));
+    }
+}
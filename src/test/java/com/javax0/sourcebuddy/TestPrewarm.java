@@ -0,0 +1,20 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class TestPrewarm {
+
+    @Test
+    @DisplayName("The warm-up is started once and reports its duration")
+    void prewarmCompletes() throws Exception {
+        final var future = Compiler.prewarm();
+        Assertions.assertSame(future, Compiler.prewarm());
+        final var duration = future.get(2, TimeUnit.MINUTES);
+        Assertions.assertTrue(duration.toNanos() > 0);
+        Assertions.assertTrue(future.isDone());
+    }
+}
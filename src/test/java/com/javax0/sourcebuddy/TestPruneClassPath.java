@@ -0,0 +1,109 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+public class TestPruneClassPath {
+
+    private static final String USES_FLUENT = """
+            package com.javax0.sourcebuddy.prune1;
+            import com.javax0.sourcebuddy.Fluent;
+            public class A {
+                public Fluent.AddSource f() { return null; }
+            }
+            """;
+
+    private static final String USES_ASSERTIONS = """
+            package com.javax0.sourcebuddy.prune1;
+            import com.javax0.sourcebuddy.Fluent;
+            public class B {
+                public Fluent.AddSource f() { return null; }
+                public Object g() { return org.junit.jupiter.api.Assertions.class; }
+            }
+            """;
+
+    private static final String USES_JDK_ONLY = """
+            package com.javax0.sourcebuddy.prune2;
+            import java.util.List;
+            public class C {
+                public List<String> f() { return List.of("c"); }
+            }
+            """;
+
+    /**
+     * @return the class path entries learned for the import footprint of the sources of the compiler
+     */
+    @SuppressWarnings("unchecked")
+    private static List<String> learned(final Fluent.Compiled compiled) throws Exception {
+        final var sourcesField = Compiler.class.getDeclaredField("sources");
+        sourcesField.setAccessible(true);
+        final var pathOptionsField = Compiler.class.getDeclaredField("pathOptions");
+        pathOptionsField.setAccessible(true);
+        final var sources = (List<StringJavaSource>) sourcesField.get(compiled);
+        final var pathOptions = (List<String>) pathOptionsField.get(null);
+        return ClassPathPruning.learned(ClassPathPruning.footprint(sources, pathOptions));
+    }
+
+    private static String entryOf(final Class<?> klass) throws Exception {
+        return Paths.get(klass.getProtectionDomain().getCodeSource().getLocation().toURI()).toFile().getCanonicalPath();
+    }
+
+    @Test
+    @DisplayName("The entries read by the compiler are learned, and the same footprint compiles with only them")
+    void learnAndPrune() throws Exception {
+        final var first = Compiler.java().pruneClassPath().from(USES_FLUENT).compile();
+        Assertions.assertEquals(List.of(entryOf(Fluent.class)), learned(first));
+        final var second = Compiler.java().pruneClassPath().from(USES_FLUENT).compile();
+        Assertions.assertNotNull(second.load().get());
+        Assertions.assertEquals(List.of(entryOf(Fluent.class)), learned(second));
+    }
+
+    @Test
+    @DisplayName("A compilation failing with the pruned class path is compiled with the whole class path")
+    void fallBack() throws Exception {
+        // a package of its own, so the learned entries do not change the footprint of the other test
+        Compiler.java().pruneClassPath().from(USES_FLUENT.replace("prune1", "prune3")).compile();
+        final var compiled = Compiler.java().pruneClassPath().from(USES_ASSERTIONS.replace("prune1", "prune3")).compile();
+        Assertions.assertEquals(Object.class, compiled.load().get().getMethod("g").getReturnType());
+        final var learned = learned(compiled);
+        Assertions.assertTrue(learned.contains(entryOf(Fluent.class)));
+        Assertions.assertTrue(learned.contains(entryOf(Assertions.class)));
+    }
+
+    @Test
+    @DisplayName("Sources using only the JDK compile with an empty class path")
+    void jdkOnly() throws Exception {
+        Compiler.java().pruneClassPath().from(USES_JDK_ONLY).compile();
+        final var compiled = Compiler.java().pruneClassPath().from(USES_JDK_ONLY).compile();
+        Assertions.assertEquals(List.of(), learned(compiled));
+        Assertions.assertNotNull(compiled.load().get());
+    }
+
+    @Test
+    @DisplayName("An empty pruned class path does not find the classes of the current directory")
+    void emptyIsNotTheCurrentDirectory() throws Exception {
+        final var stray = Paths.get("prunestray");
+        Compiler.java().from("package prunestray; public class Stray {}").compile().saveTo(Paths.get("."));
+        try {
+            Compiler.java().pruneClassPath().from(USES_JDK_ONLY.replace("prune2", "prune4")).compile();
+            Assertions.assertThrows(Compiler.CompileException.class,
+                    () -> Compiler.java().pruneClassPath().from(USES_JDK_ONLY.replace("prune2", "prune4")
+                            .replace("List.of(\"c\")", "List.of(prunestray.Stray.class.getName())")).compile());
+        } finally {
+            Files.deleteIfExists(stray.resolve("Stray.class"));
+            Files.deleteIfExists(stray);
+        }
+    }
+
+    @Test
+    @DisplayName("Real compilation errors are reported")
+    void error() {
+        Assertions.assertThrows(Compiler.CompileException.class,
+                () -> Compiler.java().pruneClassPath().from(USES_JDK_ONLY.replace("List.of", "Lis.of")).compile());
+    }
+}
@@ -0,0 +1,88 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestSignatures {
+
+    private static final String BASE = """
+            package com.javax0.sourcebuddy.signatures;
+            public abstract class Base {
+                protected final String name;
+                protected Base(String name) { this.name = name; }
+                public abstract String greet();
+            }
+            """;
+
+    private static final String HELLO = """
+            package com.javax0.sourcebuddy.signatures;
+            public class Hello extends Base {
+                public static final java.util.List<String> NAMES;
+                static {
+                    NAMES = java.util.List.of("a", "b");
+                }
+                private final int length;
+                {
+                    System.out.println("initializing");
+                }
+                public Hello(String name) {
+                    super(name.trim());
+                    this.length = name.length();
+                }
+                public String greet() {
+                    return "Hello, " + name + " " + length;
+                }
+            }
+            """;
+
+    @Test
+    @DisplayName("The bodies are not compiled, only the signatures")
+    void bodiesAreNotCompiled() throws Exception {
+        final var compiled = Compiler.java().signaturesOnly()
+                .from(BASE)
+                .from(HELLO.replace("return \"Hello, \"", "return undefined() +"))
+                .compile();
+        Assertions.assertEquals(0, compiled.stream().count());
+        Assertions.assertThrows(RuntimeException.class, compiled::load);
+    }
+
+    @Test
+    @DisplayName("The errors of the signatures are reported at the original position")
+    void signatureError() {
+        final var e = Assertions.assertThrows(Compiler.CompileException.class, () -> Compiler.java().signaturesOnly()
+                .from(BASE)
+                .from(HELLO.replace("public String greet()", "public NoSuchType greet()"))
+                .compile());
+        Assertions.assertTrue(e.getMessage().contains("Hello.java:15: error: cannot find symbol"), e.getMessage());
+    }
+
+    @Test
+    @DisplayName("The class level checks, like a missing implementation, are done")
+    void missingImplementation() {
+        Assertions.assertThrows(Compiler.CompileException.class, () -> Compiler.java().signaturesOnly()
+                .from(BASE)
+                .from(HELLO.replace("public String greet()", "public String greeting()"))
+                .compile());
+    }
+
+    @Test
+    @DisplayName("The stub classes can be used by later compilations, and their methods throw an exception")
+    void stubs() throws Exception {
+        final var stubs = Compiler.java().signatureStubs().from(BASE).from(HELLO).compile();
+        Assertions.assertEquals(2, stubs.stream().count());
+        final var loaded = Compiler.java().classPathLayer(stubs)
+                .from("""
+                        package com.javax0.sourcebuddy.signatures.user;
+                        import com.javax0.sourcebuddy.signatures.*;
+                        public class User {
+                            public String use() { Base base = new Hello("x"); return base.greet() + Hello.NAMES; }
+                        }
+                        """)
+                .compile().load();
+        final var user = loaded.newInstance();
+        final var e = Assertions.assertThrows(java.lang.reflect.InvocationTargetException.class,
+                () -> user.getClass().getMethod("use").invoke(user));
+        Assertions.assertTrue(e.getCause() instanceof ExceptionInInitializerError, e.getCause().toString());
+    }
+}
@@ -0,0 +1,101 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Supplier;
+
+public class TestSkipUnchanged {
+
+    private static final String HELPER = """
+            package com.javax0.sourcebuddy.skip;
+            public class Helper {
+                public static String value() { return "%s"; }
+            }
+            """;
+
+    private static final String HELPER_CHANGED_API = """
+            package com.javax0.sourcebuddy.skip;
+            public class Helper {
+                public static String value() { return "%s"; }
+                public static String other() { return "other"; }
+            }
+            """;
+
+    private static final String USER = """
+            package com.javax0.sourcebuddy.skip;
+            import java.util.function.Supplier;
+            public class User implements Supplier<String> {
+                public String get() { return Helper.value(); }
+            }
+            """;
+
+    @SuppressWarnings("unchecked")
+    private static String get(final Compiler.Loaded loaded) throws Exception {
+        return ((Supplier<String>) loaded.newInstance("User")).get();
+    }
+
+    private static MemoryFileObject classFile(final Compiler compiler, final String name) throws Exception {
+        final var managerField = Compiler.class.getDeclaredField("manager");
+        managerField.setAccessible(true);
+        return ((InMemoryJavaFileManager) managerField.get(compiler)).getClassFileObjectsMap().get(name);
+    }
+
+    @Test
+    @DisplayName("Only the changed source is compiled when the API does not change")
+    void onlyChangedSourceIsCompiled() throws Exception {
+        final var compiler = (Compiler) Compiler.java().skipUnchanged();
+        compiler.from(HELPER.formatted("a")).from(USER).compile();
+        Assertions.assertEquals("a", get(compiler.load()));
+        final var userFile = classFile(compiler, "com.javax0.sourcebuddy.skip.User");
+
+        compiler.reset();
+        compiler.from(HELPER.formatted("b")).compile();
+        Assertions.assertSame(userFile, classFile(compiler, "com.javax0.sourcebuddy.skip.User"));
+        Assertions.assertEquals("b", get(compiler.load()));
+    }
+
+    @Test
+    @DisplayName("All the sources are compiled when the API of a changed source changes")
+    void apiChangeCompilesAll() throws Exception {
+        final var compiler = (Compiler) Compiler.java().skipUnchanged();
+        compiler.from(HELPER.formatted("a")).from(USER).compile();
+        final var userFile = classFile(compiler, "com.javax0.sourcebuddy.skip.User");
+
+        compiler.reset();
+        compiler.from(HELPER_CHANGED_API.formatted("c")).compile();
+        Assertions.assertNotSame(userFile, classFile(compiler, "com.javax0.sourcebuddy.skip.User"));
+        Assertions.assertEquals("c", get(compiler.load()));
+    }
+
+    @Test
+    @DisplayName("Nothing is compiled when no source changed")
+    void nothingChanged() throws Exception {
+        final var compiler = (Compiler) Compiler.java().skipUnchanged();
+        compiler.from(HELPER.formatted("a")).from(USER).compile();
+        final var userFile = classFile(compiler, "com.javax0.sourcebuddy.skip.User");
+        compiler.reset();
+        compiler.compile();
+        Assertions.assertSame(userFile, classFile(compiler, "com.javax0.sourcebuddy.skip.User"));
+        Assertions.assertEquals("a", get(compiler.load()));
+    }
+
+    @Test
+    @DisplayName("The class files are kept when a compilation fails, and a reverted source needs no compilation")
+    void failThenRevert() throws Exception {
+        final var compiler = (Compiler) Compiler.java().skipUnchanged();
+        compiler.from(HELPER.formatted("a")).from(USER).compile();
+        final var userFile = classFile(compiler, "com.javax0.sourcebuddy.skip.User");
+
+        compiler.reset();
+        Assertions.assertThrows(Compiler.CompileException.class,
+                () -> compiler.from(HELPER.formatted("a").replace("value()", "renamed()")).compile());
+
+        compiler.reset();
+        compiler.from(HELPER.formatted("a")).compile();
+        Assertions.assertSame(userFile, classFile(compiler, "com.javax0.sourcebuddy.skip.User"));
+        Assertions.assertNotNull(classFile(compiler, "com.javax0.sourcebuddy.skip.Helper"));
+        Assertions.assertEquals("a", get(compiler.load()));
+    }
+}
@@ -0,0 +1,87 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class TestSourcePath {
+
+    /**
+     * Create a source directory with an entry class, a class it uses and a class, which does not even compile. The
+     * compilation fails if the compiler reads the last one.
+     */
+    private static Path sourceDirectory(final String name) throws Exception {
+        final var dir = Paths.get("./target/source-path-test").resolve(name);
+        Files.createDirectories(dir.resolve("lazy/util"));
+        Files.writeString(dir.resolve("lazy/Main.java"), """
+                package lazy;
+                import lazy.util.Helper;
+                public class Main {
+                    public static String hello() { return Helper.hello(); }
+                }
+                """);
+        Files.writeString(dir.resolve("lazy/util/Helper.java"), """
+                package lazy.util;
+                public class Helper {
+                    public static String hello() { return "hello"; }
+                }
+                """);
+        Files.writeString(dir.resolve("lazy/Broken.java"), """
+                package lazy;
+                public class Broken {
+                    this is not Java
+                }
+                """);
+        return dir;
+    }
+
+    @Test
+    @DisplayName("Only the sources reachable from the entry class are read and compiled")
+    void onlyReachableSources() throws Exception {
+        final var compiled = Compiler.java().from(sourceDirectory("entry"), "lazy.Main").compile();
+        Assertions.assertEquals(2, compiled.stream().count());
+        final var main = compiled.load().get("lazy.Main");
+        Assertions.assertEquals("hello", main.getMethod("hello").invoke(null));
+        Assertions.assertSame(main.getClassLoader(), main.getClassLoader().loadClass("lazy.util.Helper").getClassLoader());
+    }
+
+    @Test
+    @DisplayName("A source given as a string can use the classes of the source path")
+    void stringSourceUsesSourcePath() throws Exception {
+        final var user = Compiler.java().sourcePath(sourceDirectory("string")).from("""
+                package lazy.user;
+                public class User {
+                    public static String hello() { return lazy.util.Helper.hello() + "!"; }
+                }
+                """).compile().load().get();
+        Assertions.assertEquals("hello!", user.getMethod("hello").invoke(null));
+    }
+
+    @Test
+    @DisplayName("A cached compilation is not used when a source of the source path changed")
+    void changedSourceIsNotCached() throws Exception {
+        final var dir = sourceDirectory("cached");
+        final var cache = new MemoryClassStore(10, false);
+        final var first = Compiler.java().cache(cache).from(dir, "lazy.Main").compile().load().get();
+        Assertions.assertEquals("hello", first.getMethod("hello").invoke(null));
+        Files.writeString(dir.resolve("lazy/util/Helper.java"), """
+                package lazy.util;
+                public class Helper {
+                    public static String hello() { return "hello again"; }
+                }
+                """);
+        final var second = Compiler.java().cache(cache).from(dir, "lazy.Main").compile().load().get();
+        Assertions.assertEquals("hello again", second.getMethod("hello").invoke(null));
+    }
+
+    @Test
+    @DisplayName("A missing entry source is reported")
+    void missingEntry() {
+        Assertions.assertThrows(RuntimeException.class,
+                () -> Compiler.java().from(sourceDirectory("missing"), "lazy.Missing"));
+    }
+}
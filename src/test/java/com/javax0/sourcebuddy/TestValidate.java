@@ -0,0 +1,79 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.Diagnostic;
+
+public class TestValidate {
+
+    private static final String VALID = """
+            package com.javax0.sourcebuddy.validate;
+            public class Valid {
+                public String get() { return "valid"; }
+            }
+            """;
+
+    private static final String SYNTAX_ERROR = """
+            package com.javax0.sourcebuddy.validate;
+            public class Broken {
+                int x = ;
+            }
+            """;
+
+    private static final String TYPE_ERROR = """
+            package com.javax0.sourcebuddy.validate;
+            public class Unresolved {
+                NoSuchType x = undefined();
+            }
+            """;
+
+    @Test
+    @DisplayName("A syntactically correct source has no problems")
+    void valid() throws Exception {
+        final var validation = Compiler.java().from(VALID).validate();
+        Assertions.assertTrue(validation.isValid());
+        Assertions.assertTrue(validation.problems().isEmpty());
+    }
+
+    @Test
+    @DisplayName("The syntax errors are reported with the source and the position")
+    void syntaxError() throws Exception {
+        final var validation = Compiler.java().from(SYNTAX_ERROR).validate();
+        Assertions.assertFalse(validation.isValid());
+        final var problem = validation.problems().get(0);
+        Assertions.assertEquals("com.javax0.sourcebuddy.validate.Broken", problem.source());
+        Assertions.assertEquals(Diagnostic.Kind.ERROR, problem.kind());
+        Assertions.assertEquals(3, problem.line());
+        Assertions.assertEquals(13, problem.column());
+        Assertions.assertEquals("compiler.err.illegal.start.of.expr", problem.code());
+        Assertions.assertTrue(validation.toString().startsWith("com.javax0.sourcebuddy.validate.Broken:3:13: error: "));
+    }
+
+    @Test
+    @DisplayName("The names are not resolved, only the syntax is checked")
+    void namesAreNotResolved() throws Exception {
+        Assertions.assertTrue(Compiler.java().from(TYPE_ERROR).validate().isValid());
+    }
+
+    @Test
+    @DisplayName("The sources can be compiled after the validation")
+    void compileAfterValidation() throws Exception {
+        final var compiler = Compiler.java().from(VALID);
+        Assertions.assertTrue(compiler.validate().isValid());
+        final var loaded = compiler.compile().load();
+        Assertions.assertEquals("valid", loaded.get().getMethod("get").invoke(loaded.newInstance()));
+    }
+
+    @Test
+    @DisplayName("The validation runs in a compiler session")
+    void session() throws Exception {
+        final var session = new CompilerSession();
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(session.java().from(VALID).validate().isValid());
+            Assertions.assertFalse(session.java().from(SYNTAX_ERROR).validate().isValid());
+        }
+        Assertions.assertEquals(0, session.runs());
+    }
+}
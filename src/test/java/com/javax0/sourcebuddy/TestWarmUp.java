@@ -0,0 +1,111 @@
+package com.javax0.sourcebuddy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+public class TestWarmUp {
+
+    private static final String HOT = """
+            package com.javax0.sourcebuddy.warm;
+            public class Hot {
+                public String hello(){ return "hot"; }
+            }
+            """;
+
+    private static final String COLD = """
+            package com.javax0.sourcebuddy.warm;
+            public class Cold {
+                public String hello(){ return "cold"; }
+            }
+            """;
+
+    private static final String BROKEN = """
+            package com.javax0.sourcebuddy.warm;
+            public class Broken {
+                public String hello(){ return missing; }
+            }
+            """;
+
+    @Test
+    @DisplayName("The manifest records the compilations and keeps the most requested first")
+    void manifestRecordsCompilations() throws Exception {
+        final var manifest = new HotManifest();
+        for (int i = 0; i < 3; i++) {
+            Compiler.java().from(HOT).manifest(manifest).compile();
+        }
+        Compiler.java().from(COLD).manifest(manifest).compile();
+        Assertions.assertEquals(2, manifest.size());
+        final var top = manifest.top(1);
+        Assertions.assertEquals(1, top.size());
+        Assertions.assertTrue(top.get(0).sources().containsKey("com.javax0.sourcebuddy.warm.Hot"));
+        Assertions.assertEquals(3, manifest.count(top.get(0).key()));
+
+        final var file = Paths.get("./target/warm-up-test/manifest.sbm");
+        Files.createDirectories(file.getParent());
+        manifest.save(file);
+        final var loaded = new HotManifest().load(file);
+        Assertions.assertEquals(2, loaded.size());
+        Assertions.assertEquals(top, loaded.top(1));
+    }
+
+    @Test
+    @DisplayName("The warm-up fills the store from the manifest and counts the failures")
+    void warmUpFillsTheStore() throws Exception {
+        final var manifest = new HotManifest();
+        Compiler.java().from(HOT).manifest(manifest).compile();
+        Compiler.java().from(COLD).manifest(manifest).compile();
+        Assertions.assertThrows(Compiler.CompileException.class, () -> Compiler.java().from(BROKEN).manifest(manifest).compile());
+
+        final var store = new MemoryClassStore(10, false);
+        final var warmUp = WarmUp.start(manifest, 10, store, 2);
+        Assertions.assertTrue(warmUp.await(Duration.ofMinutes(1)));
+        Assertions.assertTrue(warmUp.isDone());
+        Assertions.assertEquals(3, warmUp.total());
+        Assertions.assertEquals(3, warmUp.completed());
+        Assertions.assertEquals(1, warmUp.failed());
+        Assertions.assertEquals(2, store.cache().size());
+
+        Compiler.java().from(HOT).cache(store).compile();
+        Assertions.assertEquals(1, store.cache().hits());
+    }
+
+    @Test
+    @DisplayName("Repeating a recorded compilation reproduces its fingerprint")
+    void replayReproducesTheKey() throws Exception {
+        final var dir = Paths.get("./target/warm-up-test/sources");
+        Files.createDirectories(dir.resolve("com/javax0/sourcebuddy/warm"));
+        Files.writeString(dir.resolve("com/javax0/sourcebuddy/warm/Cold.java"), COLD);
+        final var manifest = new HotManifest();
+        Compiler.java().from(HOT).manifest(manifest).compile();
+        Compiler.java().sourcePath(dir).from(HOT.replace("Hot", "Warm")).manifest(manifest).compile();
+        Compiler.java().from(COLD).signatureStubs().manifest(manifest).compile();
+        Assertions.assertEquals(3, manifest.size());
+
+        final var file = Paths.get("./target/warm-up-test/replay.sbm");
+        manifest.save(file);
+        for (final var entry : new HotManifest().load(file).top(3)) {
+            final var store = new MemoryClassStore(10, false);
+            entry.compile(store);
+            Assertions.assertTrue(store.load(entry.key()).isPresent(), "replay of " + entry.sources().keySet());
+        }
+    }
+
+    @Test
+    @DisplayName("A compilation against a class path layer is not recorded")
+    void layerIsNotRecorded() throws Exception {
+        final var manifest = new HotManifest();
+        final var hot = Compiler.java().from(HOT).compile();
+        Compiler.java().classPathLayer(hot).from("""
+                package com.javax0.sourcebuddy.warm;
+                public class User {
+                    public String hello(){ return new Hot().hello(); }
+                }
+                """).manifest(manifest).compile();
+        Assertions.assertEquals(0, manifest.size());
+    }
+}